@@ -0,0 +1,91 @@
+package com.example.hoteluserservce.benchmark;
+
+import com.example.hoteluserservce.enums.JwtSigningAlgorithm;
+import com.example.hoteluserservce.enums.UserRole;
+import com.example.hoteluserservce.model.User;
+import com.example.hoteluserservce.util.JwtClaimsCache;
+import com.example.hoteluserservce.util.JwtKeyRing;
+import com.example.hoteluserservce.util.JwtUtil;
+import com.example.hoteluserservce.util.TokenEpochRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Сборка компонентов без Spring-контекста: @Value-поля и @PostConstruct выставляются рефлексией
+ */
+public final class BenchmarkFixtures {
+
+    // Base64 от 34 байт — достаточно для HS256
+    public static final String JWT_SECRET = "c2VjcmV0LXNlY3JldC1zZWNyZXQtc2VjcmV0LXNlY3JldA==";
+    public static final long ACCESS_TOKEN_EXPIRATION = Duration.ofMinutes(30).toMillis();
+
+    private BenchmarkFixtures() {
+    }
+
+    public static JwtUtil jwtUtil(JwtSigningAlgorithm algorithm) {
+        JwtKeyRing keyRing = new JwtKeyRing(new InMemoryJwtKeyStore());
+        setField(keyRing, "algorithm", algorithm);
+        setField(keyRing, "accessTokenExpiration", ACCESS_TOKEN_EXPIRATION);
+        setField(keyRing, "publishAhead", Duration.ofMinutes(10));
+        setField(keyRing, "overlap", Duration.ofMinutes(5));
+        setField(keyRing, "rotationInterval", Duration.ofHours(24));
+        invokeInit(keyRing);
+
+        JwtUtil jwtUtil = new JwtUtil(keyRing);
+        setField(jwtUtil, "secret", JWT_SECRET);
+        setField(jwtUtil, "accessTokenExpiration", ACCESS_TOKEN_EXPIRATION);
+        setField(jwtUtil, "refreshTokenExpiration", Duration.ofDays(7).toMillis());
+        invokeInit(jwtUtil);
+        return jwtUtil;
+    }
+
+    public static JwtClaimsCache jwtClaimsCache(JwtUtil jwtUtil, boolean enabled) {
+        return new JwtClaimsCache(jwtUtil, new SimpleMeterRegistry(), enabled, 10_000);
+    }
+
+    // Без БД: опрос изменений не запускается, карта эпох пуста, как у большинства пользователей
+    public static TokenEpochRegistry tokenEpochRegistry() {
+        return new TokenEpochRegistry(null, new SimpleMeterRegistry(), true, ACCESS_TOKEN_EXPIRATION,
+                Duration.ofSeconds(10));
+    }
+
+    public static User user() {
+        return User.builder()
+                .id(42L)
+                .username("guest42")
+                .email("guest42@hotel.com")
+                .password("{bcrypt}$2a$10$abcdefghijklmnopqrstuvABCDEFGHIJKLMNOPQRSTUVWXYZ01234")
+                .firstName("Ivan")
+                .lastName("Petrov")
+                .phone("+380501234567")
+                .role(UserRole.USER)
+                .emailVerified(true)
+                .accountLocked(false)
+                .createdAt(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name, e);
+        }
+    }
+
+    private static void invokeInit(Object target) {
+        try {
+            Method init = target.getClass().getDeclaredMethod("init");
+            init.setAccessible(true);
+            init.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot initialize " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.hoteluserservce.benchmark;
+
+import com.example.hoteluserservce.util.RegisterRequestValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка email: String.matches (компиляция regex на каждый вызов, как было в UserServiceImpl)
+ * против заранее скомпилированного Pattern в RegisterRequestValidator
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailValidationBenchmark {
+
+    private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
+
+    @Param({"guest42@hotel.com", "not-an-email", "very.long.local.part.for.some.guest+booking@sub.domain.hotel-chain.com"})
+    private String email;
+
+    private final RegisterRequestValidator validator = new RegisterRequestValidator();
+
+    @Benchmark
+    public boolean stringMatches() {
+        return email.matches(EMAIL_REGEX);
+    }
+
+    @Benchmark
+    public boolean precompiledPattern() {
+        return validator.isValidEmail(email);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.hoteluserservce.benchmark;
+
+import com.example.hoteluserservce.enums.JwtSigningAlgorithm;
+import com.example.hoteluserservce.util.JwtKeyStore;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Хранилище ключей без БД для бенчмарков: один инстанс, ключи живут до конца прогона
+ */
+final class InMemoryJwtKeyStore implements JwtKeyStore {
+
+    private final List<StoredKey> keys = new ArrayList<>();
+
+    @Override
+    public synchronized List<StoredKey> load(JwtSigningAlgorithm algorithm, Instant now) {
+        return keys.stream()
+                .filter(key -> key.algorithm() == algorithm)
+                .filter(key -> key.retiresAt() == null || key.retiresAt().isAfter(now))
+                .toList();
+    }
+
+    @Override
+    public synchronized boolean addIfStale(StoredKey key, Instant freshAfter, Instant retiresAt) {
+        boolean fresh = keys.stream().anyMatch(existing -> existing.algorithm() == key.algorithm()
+                && existing.retiresAt() == null && existing.activatesAt().isAfter(freshAfter));
+        if (fresh) {
+            return false;
+        }
+        keys.replaceAll(existing -> existing.algorithm() == key.algorithm() && existing.retiresAt() == null
+                ? new StoredKey(existing.kid(), existing.algorithm(), existing.keyPair(), existing.activatesAt(), retiresAt)
+                : existing);
+        keys.add(key);
+        return true;
+    }
+
+    @Override
+    public synchronized int deleteRetired(Instant now) {
+        int before = keys.size();
+        keys.removeIf(key -> key.retiresAt() != null && key.retiresAt().isBefore(now));
+        return before - keys.size();
+    }
+}
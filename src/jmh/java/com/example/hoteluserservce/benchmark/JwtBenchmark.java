@@ -0,0 +1,86 @@
+package com.example.hoteluserservce.benchmark;
+
+import com.example.hoteluserservce.enums.JwtSigningAlgorithm;
+import com.example.hoteluserservce.model.User;
+import com.example.hoteluserservce.util.JwtClaims;
+import com.example.hoteluserservce.util.JwtClaimsCache;
+import com.example.hoteluserservce.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка access token для каждого алгоритма подписи,
+ * а также проверка через кэш claims (cachedVerify) против полного разбора (verifyToken).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    private JwtSigningAlgorithm algorithm;
+
+    private JwtUtil jwtUtil;
+    private JwtClaimsCache claimsCache;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkFixtures.jwtUtil(algorithm);
+        claimsCache = BenchmarkFixtures.jwtClaimsCache(jwtUtil, true);
+        user = BenchmarkFixtures.user();
+        token = jwtUtil.generateAccessToken(user);
+        claimsCache.verify(token);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtUtil.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public JwtClaims verifyToken() {
+        return jwtUtil.verifyToken(token);
+    }
+
+    @Benchmark
+    public JwtClaims cachedVerify() {
+        return claimsCache.verify(token);
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Long extractUserId() {
+        return jwtUtil.extractUserId(token);
+    }
+
+    @Benchmark
+    public String extractRole() {
+        return jwtUtil.extractRole(token);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.hoteluserservce.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.example.hoteluserservce.config.SampledLogFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Логирование запроса профиля: текущая конфигурация против профиля prod.
+ *
+ * current — синхронный текстовый вывод, уровень DEBUG, две INFO-строки на запрос (как было в UserController);
+ * prod — AsyncAppender + SampledLogFilter(0.1) + JsonEncoder, одно событие с key/value.
+ * Вывод в /dev/null: учитывается форматирование и системный вызов записи, но не скорость диска.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final String CURRENT_PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    @Param({"current", "prod"})
+    private String config;
+
+    private LoggerContext context;
+    private Logger log;
+    private final String serverPort = "1511";
+    private final String username = "guest42";
+    private final Long userId = 42L;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws FileNotFoundException {
+        context = new LoggerContext();
+        context.start();
+
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setOutputStream(new FileOutputStream("/dev/null"));
+        output.setEncoder("prod".equals(config) ? jsonEncoder() : patternEncoder());
+        output.start();
+
+        Appender<ILoggingEvent> root = output;
+        if ("prod".equals(config)) {
+            SampledLogFilter filter = new SampledLogFilter();
+            filter.setRate(0.1);
+            filter.setLoggerPrefix("com.example.hoteluserservce");
+            filter.start();
+
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addFilter(filter);
+            async.addAppender(output);
+            async.start();
+            root = async;
+        }
+
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel("prod".equals(config) ? Level.INFO : Level.DEBUG);
+        rootLogger.addAppender(root);
+        log = context.getLogger("com.example.hoteluserservce.controller.UserController");
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void profileRequest() {
+        if ("prod".equals(config)) {
+            log.atInfo()
+                    .addKeyValue("event", "profile_returned")
+                    .addKeyValue("port", serverPort)
+                    .addKeyValue("username", username)
+                    .addKeyValue("userId", userId)
+                    .log("Profile returned");
+        } else {
+            log.info("🎯 [ОТВЕЧАЕТ ПОРТ-{}] Profile request for user: {}", serverPort, username);
+            log.info("✅ [ОТВЕЧАЕТ ПОРТ-{}] Profile successfully returned for user: {} (ID: {})",
+                    serverPort, username, userId);
+        }
+    }
+
+    @Benchmark
+    public void failedLogin() {
+        // WARN не выборочный ни в одной конфигурации
+        log.warn("Login failed - invalid credentials: {}", username);
+    }
+
+    private Encoder<ILoggingEvent> patternEncoder() {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(CURRENT_PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    private Encoder<ILoggingEvent> jsonEncoder() {
+        JsonEncoder encoder = new JsonEncoder();
+        encoder.setContext(context);
+        encoder.setWithSequenceNumber(false);
+        encoder.setWithNanoseconds(false);
+        encoder.setWithContext(false);
+        encoder.setWithMessage(false);
+        encoder.setWithArguments(false);
+        encoder.start();
+        return encoder;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.hoteluserservce.benchmark;
+
+import com.example.hoteluserservce.dto.user.UpdateUserDto;
+import com.example.hoteluserservce.dto.user.UserDto;
+import com.example.hoteluserservce.mapper.UserMapper;
+import com.example.hoteluserservce.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+
+    private final UserMapper userMapper = new UserMapper();
+    private User user;
+    private UpdateUserDto updateDto;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user();
+        updateDto = new UpdateUserDto();
+        updateDto.setFirstName("Petr");
+        updateDto.setLastName("Ivanov");
+        updateDto.setPhone("+380509876543");
+    }
+
+    @Benchmark
+    public UserDto toUserDto() {
+        return userMapper.toUserDto(user);
+    }
+
+    @Benchmark
+    public User updateUserFromDto() {
+        userMapper.updateUserFromDto(user, updateDto);
+        return user;
+    }
+}
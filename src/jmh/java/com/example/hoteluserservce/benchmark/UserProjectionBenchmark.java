@@ -0,0 +1,94 @@
+package com.example.hoteluserservce.benchmark;
+
+import com.example.hoteluserservce.HotelUserServceApplication;
+import com.example.hoteluserservce.dto.user.UserDto;
+import com.example.hoteluserservce.mapper.UserMapper;
+import com.example.hoteluserservce.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение 100 пользователей: сущности User + UserMapper против проекции в UserDto (findDtosByIdIn).
+ *
+ * Сервис поднимается в том же процессе поверх встроенного PostgreSQL, чтение — в readOnly-транзакции,
+ * как в сервисах. В задержку входит поход в БД; аллокации (-prof gc) — только на стороне JVM.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserProjectionBenchmark {
+
+    private static final int ROWS = 100;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext application;
+    private UserRepository userRepository;
+    private UserMapper userMapper;
+    private TransactionTemplate readOnly;
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        application = new SpringApplicationBuilder(HotelUserServceApplication.class)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+
+        userRepository = application.getBean(UserRepository.class);
+        userMapper = application.getBean(UserMapper.class);
+        readOnly = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = application.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO users (username, email, password, first_name, last_name, phone, role, "
+                + "email_verified, account_locked, created_at) "
+                + "SELECT 'guest' || g, 'guest' || g || '@hotel.com', "
+                + "'{bcrypt}$2a$10$abcdefghijklmnopqrstuvABCDEFGHIJKLMNOPQRSTUVWXYZ01234', "
+                + "'Ivan', 'Petrov', '+380501234567', 'USER', true, false, now() FROM generate_series(1, ?) g", ROWS);
+        ids = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        application.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<UserDto> entities() {
+        return readOnly.execute(status -> userRepository.findAllById(ids).stream()
+                .map(userMapper::toUserDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<UserDto> projection() {
+        return readOnly.execute(status -> userRepository.findDtosByIdIn(ids));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.hoteluserservce.config;
+
+import com.example.hoteluserservce.benchmark.BenchmarkFixtures;
+import com.example.hoteluserservce.enums.JwtSigningAlgorithm;
+import com.example.hoteluserservce.util.JwtUtil;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный проход doFilterInternal с Bearer-токеном: проверка (с кэшем claims и без),
+ * создание Authentication и запись в SecurityContext.
+ * В пакете config, потому что doFilterInternal — protected.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"HS256", "ES256"})
+    private JwtSigningAlgorithm algorithm;
+
+    @Param({"true", "false"})
+    private boolean claimsCacheEnabled;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = BenchmarkFixtures.jwtUtil(algorithm);
+        filter = new JwtAuthenticationFilter(BenchmarkFixtures.jwtClaimsCache(jwtUtil, claimsCacheEnabled),
+                BenchmarkFixtures.tokenEpochRegistry());
+        authorizationHeader = "Bearer " + jwtUtil.generateAccessToken(BenchmarkFixtures.user());
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public MockHttpServletRequest authenticatedRequest() throws ServletException, IOException {
+        // Новые mock-объекты на каждый вызов, как и реальные запросы
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/profile");
+        request.addHeader("Authorization", authorizationHeader);
+        filter.doFilterInternal(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        return request;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.hoteluserservce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * HTTP-запросы нагрузочного теста: вход, обновление токена, профиль.
+ *
+ * Если для refresh или профиля нет свободной сессии, вместо них выполняется вход
+ * (учитывается как login) — так пул восстанавливается после отказов.
+ */
+final class AuthClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final SessionPool sessions;
+    private final LatencyReport report;
+
+    AuthClient(String baseUrl, LoadTestOptions options, SessionPool sessions, LatencyReport report,
+               ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.sessions = sessions;
+        this.report = report;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Выполнить операцию; задержка считается от startNanos
+     */
+    CompletableFuture<Void> execute(Endpoint endpoint, long startNanos) {
+        return switch (endpoint) {
+            case LOGIN -> login(startNanos);
+            case REFRESH -> refresh(startNanos);
+            case PROFILE -> profile(startNanos);
+        };
+    }
+
+    private CompletableFuture<Void> login(long startNanos) {
+        long guest = ThreadLocalRandom.current().nextLong(options.users());
+        String body = "{\"email\":\"" + GuestSeeder.email(guest) + "\",\"password\":\"" + options.password() + "\"}";
+        return send(Endpoint.LOGIN, startNanos, post(Endpoint.LOGIN, body), response -> {
+            SessionPool.Session session = parseSession(response.body());
+            if (session != null) {
+                sessions.offer(session);
+            }
+        });
+    }
+
+    private CompletableFuture<Void> refresh(long startNanos) {
+        SessionPool.Claim claim = sessions.take();
+        if (claim == null) {
+            return login(startNanos);
+        }
+        String body = "{\"refreshToken\":\"" + claim.session().refreshToken() + "\"}";
+        return send(Endpoint.REFRESH, startNanos, post(Endpoint.REFRESH, body), response -> {
+            SessionPool.Session session = parseSession(response.body());
+            if (session != null) {
+                sessions.put(claim.slot(), session);
+            }
+        });
+    }
+
+    private CompletableFuture<Void> profile(long startNanos) {
+        SessionPool.Session session = sessions.peek();
+        if (session == null) {
+            return login(startNanos);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + Endpoint.PROFILE.path()))
+                .timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + session.accessToken())
+                .GET()
+                .build();
+        return send(Endpoint.PROFILE, startNanos, request, response -> { });
+    }
+
+    private CompletableFuture<Void> send(Endpoint endpoint, long startNanos, HttpRequest request,
+                                         Consumer<HttpResponse<String>> onSuccess) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    int status = error != null ? -1 : response.statusCode();
+                    report.record(endpoint, startNanos, status);
+                    if (status == 200) {
+                        onSuccess.accept(response);
+                    }
+                    return null;
+                });
+    }
+
+    private HttpRequest post(Endpoint endpoint, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path()))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private SessionPool.Session parseSession(String body) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            return new SessionPool.Session(json.path("accessToken").asText(), json.path("refreshToken").asText());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.hoteluserservce.loadtest;
+
+/**
+ * Нагружаемые эндпоинты
+ */
+enum Endpoint {
+    LOGIN("/api/auth/login"),
+    REFRESH("/api/auth/refresh"),
+    PROFILE("/api/user/profile");
+
+    private final String path;
+
+    Endpoint(String path) {
+        this.path = path;
+    }
+
+    String path() {
+        return path;
+    }
+}
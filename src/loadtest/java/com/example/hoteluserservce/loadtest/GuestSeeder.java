@@ -0,0 +1,109 @@
+package com.example.hoteluserservce.loadtest;
+
+import org.postgresql.PGConnection;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Синтетические гости guest{N}@loadtest.local для нагрузочного теста.
+ *
+ * Хеш BCrypt считается один раз и используется для всех строк: проверка пароля при входе
+ * стоит столько же, сколько у настоящего пользователя, а заполнение миллионов строк занимает
+ * секунды (COPY). Уже созданные гости повторно не вставляются, поэтому постоянную БД
+ * (--data-dir) можно переиспользовать между запусками.
+ */
+final class GuestSeeder {
+
+    static final String EMAIL_DOMAIN = "@loadtest.local";
+
+    private static final String COPY_SQL = "COPY users (username, email, password, first_name, last_name, role, "
+            + "email_verified, account_locked, created_at) FROM STDIN WITH (FORMAT csv)";
+
+    private GuestSeeder() {
+    }
+
+    static String email(long index) {
+        return "guest" + index + EMAIL_DOMAIN;
+    }
+
+    static void seed(String jdbcUrl, String user, String password, LoadTestOptions options) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password)) {
+            long existing = countGuests(connection);
+            if (existing >= options.users()) {
+                System.out.printf("Seed: %d guests already present%n", existing);
+                return;
+            }
+
+            long started = System.nanoTime();
+            String hash = "{bcrypt}" + new BCryptPasswordEncoder(options.bcryptStrength()).encode(options.password());
+            long copied;
+            try {
+                copied = connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn(COPY_SQL, new GuestCsvReader(existing, options.users(), hash));
+            } catch (IOException e) {
+                throw new SQLException("COPY users failed", e);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE users");
+            }
+            System.out.printf("Seed: inserted %d guests (%d..%d) in %d ms%n",
+                    copied, existing, options.users() - 1, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // Гости нумеруются с 0 подряд, поэтому количество — это и следующий номер
+    private static long countGuests(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT count(*) FROM users WHERE email LIKE 'guest%" + EMAIL_DOMAIN + "'")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * CSV-строки генерируются по мере чтения, без буфера на все строки
+     */
+    private static final class GuestCsvReader extends Reader {
+
+        private final long end;
+        private final String hash;
+        private long next;
+        private String line = "";
+        private int position;
+
+        GuestCsvReader(long from, long end, String hash) {
+            this.next = from;
+            this.end = end;
+            this.hash = hash;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == line.length()) {
+                if (next >= end) {
+                    return -1;
+                }
+                line = "guest" + next + "," + email(next) + "," + hash + ",Guest," + next
+                        + ",USER,true,false,now\n";
+                next++;
+                position = 0;
+            }
+            int count = Math.min(length, line.length() - position);
+            line.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.hoteluserservce.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и ошибки по эндпоинтам (HdrHistogram, микросекунды).
+ *
+ * В открытом режиме задержка считается от запланированного времени отправки,
+ * поэтому ожидание в очереди генератора тоже попадает в перцентили.
+ */
+final class LatencyReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+
+    LatencyReport() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new Stats());
+        }
+    }
+
+    void record(Endpoint endpoint, long startNanos, int status) {
+        Stats endpointStats = stats.get(endpoint);
+        long micros = Math.min(MAX_LATENCY_MICROS, Math.max(0, (System.nanoTime() - startNanos) / 1_000));
+        endpointStats.recorder.recordValue(micros);
+        if (status < 200 || status >= 300) {
+            endpointStats.errors.increment();
+        }
+        endpointStats.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Запрос не отправлен: в открытом режиме превышен --max-in-flight (статус 0)
+     */
+    void dropped(Endpoint endpoint) {
+        Stats endpointStats = stats.get(endpoint);
+        endpointStats.errors.increment();
+        endpointStats.statuses.computeIfAbsent(0, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Сбросить накопленное после прогрева
+     */
+    void reset() {
+        stats.values().forEach(Stats::reset);
+    }
+
+    Map<String, Object> summary(double seconds, LoadTestOptions options) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((endpoint, endpointStats) -> {
+            Histogram histogram = endpointStats.recorder.getIntervalHistogram();
+            long count = endpointStats.statuses.values().stream().mapToLong(LongAdder::sum).sum();
+            if (count == 0) {
+                return;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", count);
+            row.put("errors", endpointStats.errors.sum());
+            row.put("throughput_rps", round(count / seconds));
+            row.put("p50_ms", millis(histogram.getValueAtPercentile(50)));
+            row.put("p90_ms", millis(histogram.getValueAtPercentile(90)));
+            row.put("p99_ms", millis(histogram.getValueAtPercentile(99)));
+            row.put("p999_ms", millis(histogram.getValueAtPercentile(99.9)));
+            row.put("max_ms", millis(histogram.getMaxValue()));
+            Map<Integer, Long> statuses = new TreeMap<>();
+            endpointStats.statuses.forEach((status, adder) -> statuses.put(status, adder.sum()));
+            row.put("statuses", statuses);
+            endpoints.put(endpoint.name().toLowerCase(), row);
+        });
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("mode", options.mode().name().toLowerCase());
+        summary.put("users", options.users());
+        summary.put("concurrency", options.mode() == LoadTestOptions.Mode.CLOSED ? options.concurrency() : null);
+        summary.put("target_rate_rps", options.mode() == LoadTestOptions.Mode.OPEN ? options.rate() : null);
+        summary.put("duration_s", round(seconds));
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    static void print(Map<String, Object> summary) {
+        System.out.printf("%nMode: %s, duration: %s s%n", summary.get("mode"), summary.get("duration_s"));
+        System.out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "requests", "errors", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        ((Map<String, Map<String, Object>>) summary.get("endpoints")).forEach((endpoint, row) ->
+                System.out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                        endpoint, row.get("requests"), row.get("errors"), row.get("throughput_rps"),
+                        row.get("p50_ms"), row.get("p90_ms"), row.get("p99_ms"), row.get("p999_ms"),
+                        row.get("max_ms"), row.get("statuses")));
+    }
+
+    static void write(Map<String, Object> summary, String path) throws IOException {
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), summary);
+        System.out.println("Report: " + file.toAbsolutePath());
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static final class Stats {
+        private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void reset() {
+            recorder.reset();
+            errors.reset();
+            statuses.clear();
+        }
+    }
+}
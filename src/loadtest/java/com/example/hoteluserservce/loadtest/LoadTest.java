@@ -0,0 +1,172 @@
+package com.example.hoteluserservce.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест: вход, обновление токена и профиль со смешанной нагрузкой.
+ *
+ * Без --base-url поднимает встроенный PostgreSQL и сервис в этом же процессе,
+ * создает --users синтетических гостей и входит --sessions из них, затем после прогрева
+ * печатает перцентили задержки и пропускную способность по эндпоинтам.
+ *
+ * closed — --concurrency потоков, каждый ждет ответа перед следующим запросом (максимальная пропускная способность);
+ * open — --rate запросов в секунду по расписанию; задержка считается от запланированного времени,
+ * поэтому медленные ответы не прячут хвост задержек (coordinated omission).
+ *
+ * mvn -Ploadtest compile exec:exec -Dloadtest.args="--users=1000000 --mode=open --rate=300"
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        LocalInstance local = options.local() ? LocalInstance.start(options) : null;
+        try {
+            String baseUrl = local != null ? local.baseUrl() : options.baseUrl();
+            String jdbcUrl = local != null ? local.jdbcUrl() : options.jdbcUrl();
+            if (jdbcUrl != null) {
+                GuestSeeder.seed(jdbcUrl, options.jdbcUser(), options.jdbcPassword(), options);
+            }
+            run(options, baseUrl);
+        } finally {
+            if (local != null) {
+                local.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(LoadTestOptions options, String baseUrl) throws Exception {
+        ExecutorService httpExecutor = Executors.newFixedThreadPool(
+                Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        SessionPool sessions = new SessionPool(options.sessions());
+        LatencyReport report = new LatencyReport();
+        AuthClient client = new AuthClient(baseUrl, options, sessions, report, httpExecutor);
+        Mix mix = new Mix(options.mix());
+
+        try {
+            openSessions(client, options.sessions());
+            System.out.printf("Target: %s, sessions: %d/%d%n", baseUrl, sessions.filled(), options.sessions());
+
+            System.out.printf("Warmup: %s%n", options.warmup());
+            runPhase(options, client, mix, report, options.warmup().toNanos());
+            report.reset();
+
+            System.out.printf("Measuring: %s, mode=%s%n", options.duration(), options.mode());
+            long started = System.nanoTime();
+            runPhase(options, client, mix, report, options.duration().toNanos());
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Map<String, Object> summary = report.summary(seconds, options);
+            LatencyReport.print(summary);
+            LatencyReport.write(summary, options.report());
+        } finally {
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    // Начальные сессии для refresh и профиля; в отчет не попадают
+    private static void openSessions(AuthClient client, int count) {
+        Semaphore parallel = new Semaphore(16);
+        List<CompletableFuture<Void>> logins = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            parallel.acquireUninterruptibly();
+            logins.add(client.execute(Endpoint.LOGIN, System.nanoTime())
+                    .whenComplete((ignored, error) -> parallel.release()));
+        }
+        CompletableFuture.allOf(logins.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static void runPhase(LoadTestOptions options, AuthClient client, Mix mix, LatencyReport report,
+                                 long durationNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + durationNanos;
+        if (options.mode() == LoadTestOptions.Mode.CLOSED) {
+            runClosed(options.concurrency(), client, mix, deadline);
+        } else {
+            runOpen(options.rate(), options.maxInFlight(), client, mix, report, deadline);
+        }
+    }
+
+    private static void runClosed(int concurrency, AuthClient client, Mix mix, long deadline)
+            throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    client.execute(mix.next(), System.nanoTime()).join();
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(deadline - System.nanoTime() + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Запросы отправляются по расписанию start + k * interval, даже если сервис не успевает отвечать.
+     * Задержка — от запланированного момента, а не от фактической отправки.
+     */
+    private static void runOpen(int rate, int maxInFlight, AuthClient client, Mix mix, LatencyReport report,
+                                long deadline) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        for (long scheduled = System.nanoTime(); scheduled < deadline; scheduled += interval) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = mix.next();
+            if (!inFlight.tryAcquire()) {
+                report.dropped(endpoint);
+                continue;
+            }
+            client.execute(endpoint, scheduled).whenComplete((ignored, error) -> inFlight.release());
+        }
+
+        // Дождаться ответов этой фазы, чтобы они не попали в следующую
+        if (inFlight.tryAcquire(maxInFlight, 1, TimeUnit.MINUTES)) {
+            inFlight.release(maxInFlight);
+        }
+    }
+
+    /**
+     * Случайная операция с весами из --mix
+     */
+    private static final class Mix {
+
+        private final Endpoint[] endpoints;
+        private final int[] cumulative;
+
+        Mix(Map<Endpoint, Integer> weights) {
+            this.endpoints = weights.keySet().toArray(Endpoint[]::new);
+            this.cumulative = new int[endpoints.length];
+            int total = 0;
+            for (int i = 0; i < endpoints.length; i++) {
+                total += weights.get(endpoints[i]);
+                cumulative[i] = total;
+            }
+        }
+
+        Endpoint next() {
+            int value = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (value < cumulative[i]) {
+                    return endpoints[i];
+                }
+            }
+            return endpoints[endpoints.length - 1];
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.hoteluserservce.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного теста из аргументов вида --key=value
+ */
+record LoadTestOptions(
+        String baseUrl,
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        String dataDir,
+        String profile,
+        long users,
+        int sessions,
+        String password,
+        int bcryptStrength,
+        Mode mode,
+        int concurrency,
+        int rate,
+        int maxInFlight,
+        Duration warmup,
+        Duration duration,
+        Map<Endpoint, Integer> mix,
+        String report) {
+
+    enum Mode {
+        /** Фиксированное число потоков, следующий запрос — после ответа на предыдущий */
+        CLOSED,
+        /** Запросы по расписанию с заданной частотой, независимо от ответов */
+        OPEN
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидается --key=value, получено: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                take(values, "base-url", null),
+                take(values, "jdbc-url", null),
+                take(values, "jdbc-user", "postgres"),
+                take(values, "jdbc-password", "postgres"),
+                take(values, "data-dir", null),
+                take(values, "profile", "prod"),
+                Long.parseLong(take(values, "users", "100000")),
+                Integer.parseInt(take(values, "sessions", "200")),
+                take(values, "password", "guest-password"),
+                Integer.parseInt(take(values, "bcrypt-strength", "10")),
+                Mode.valueOf(take(values, "mode", "closed").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(take(values, "concurrency", "32")),
+                Integer.parseInt(take(values, "rate", "200")),
+                Integer.parseInt(take(values, "max-in-flight", "2000")),
+                Duration.parse(take(values, "warmup", "PT10S")),
+                Duration.parse(take(values, "duration", "PT60S")),
+                parseMix(take(values, "mix", "login=10,refresh=20,profile=70")),
+                take(values, "report", "target/loadtest-report.json"));
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Неизвестные параметры: " + values.keySet());
+        }
+        if (options.baseUrl() != null && options.jdbcUrl() == null) {
+            System.out.println("--base-url без --jdbc-url: пользователи не создаются, должны уже быть в БД");
+        }
+        return options;
+    }
+
+    boolean local() {
+        return baseUrl == null;
+    }
+
+    private static String take(Map<String, String> values, String key, String defaultValue) {
+        String value = values.remove(key);
+        return value != null ? value : defaultValue;
+    }
+
+    // "login=10,refresh=20,profile=70" — относительные веса операций
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Пустой --mix: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.hoteluserservce.loadtest;
+
+import com.example.hoteluserservce.HotelUserServceApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Сервис в том же процессе поверх встроенного PostgreSQL.
+ *
+ * Схему создает Flyway при старте приложения. С --data-dir база сохраняется между запусками,
+ * и повторно заполнять миллионы гостей не нужно.
+ */
+final class LocalInstance implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext application;
+    private final String jdbcUrl;
+    private final String baseUrl;
+
+    private LocalInstance(EmbeddedPostgres postgres, ConfigurableApplicationContext application, String jdbcUrl) {
+        this.postgres = postgres;
+        this.application = application;
+        this.jdbcUrl = jdbcUrl;
+        this.baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+    }
+
+    static LocalInstance start(LoadTestOptions options) throws IOException {
+        EmbeddedPostgres.Builder builder = EmbeddedPostgres.builder();
+        if (options.dataDir() != null) {
+            builder.setDataDirectory(new File(options.dataDir())).setCleanDataDirectory(false);
+        }
+        EmbeddedPostgres postgres = builder.start();
+        String jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+        System.out.println("Embedded PostgreSQL: " + jdbcUrl);
+
+        // Без перезапуска devtools: приложение запускается из main нагрузочного теста
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        // Аргументами командной строки: они приоритетнее application.properties
+        String[] args = {
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--server.port=0",
+                "--security.password-encoder.bcrypt.strength=" + options.bcryptStrength(),
+                // Все запросы идут с одного адреса: лимит входа по IP сделал бы тест проверкой лимитера
+                "--security.login-rate-limit.enabled=false"
+        };
+
+        try {
+            ConfigurableApplicationContext application = new SpringApplicationBuilder(HotelUserServceApplication.class)
+                    .profiles(options.profile())
+                    .run(args);
+            return new LocalInstance(postgres, application, jdbcUrl);
+        } catch (RuntimeException e) {
+            postgres.close();
+            throw e;
+        }
+    }
+
+    String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    <T> T bean(Class<T> type) {
+        return application.getBean(type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        application.close();
+        postgres.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.hoteluserservce.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Активные сессии (access + refresh token) для запросов профиля и обновления токена.
+ *
+ * Refresh token одноразовый, поэтому для refresh сессия забирается из слота (take)
+ * и после ответа возвращается в тот же слот с новыми токенами; для профиля только читается.
+ */
+final class SessionPool {
+
+    record Session(String accessToken, String refreshToken) {
+    }
+
+    record Claim(int slot, Session session) {
+    }
+
+    private final AtomicReferenceArray<Session> slots;
+
+    SessionPool(int size) {
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Случайная сессия для чтения или null, если пул пуст
+     */
+    Session peek() {
+        int start = ThreadLocalRandom.current().nextInt(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            Session session = slots.get((start + i) % slots.length());
+            if (session != null) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Забрать случайную сессию вместе со слотом или null, если все заняты
+     */
+    Claim take() {
+        int start = ThreadLocalRandom.current().nextInt(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            int slot = (start + i) % slots.length();
+            Session session = slots.get(slot);
+            if (session != null && slots.compareAndSet(slot, session, null)) {
+                return new Claim(slot, session);
+            }
+        }
+        return null;
+    }
+
+    void put(int slot, Session session) {
+        slots.set(slot, session);
+    }
+
+    /**
+     * Сессия после входа: в пустой слот, иначе вместо случайной
+     */
+    void offer(Session session) {
+        int start = ThreadLocalRandom.current().nextInt(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.compareAndSet((start + i) % slots.length(), null, session)) {
+                return;
+            }
+        }
+        slots.set(start, session);
+    }
+
+    int filled() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
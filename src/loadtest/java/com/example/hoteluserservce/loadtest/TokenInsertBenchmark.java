@@ -0,0 +1,107 @@
+package com.example.hoteluserservce.loadtest;
+
+import com.example.hoteluserservce.model.RefreshToken;
+import com.example.hoteluserservce.repository.RefreshTokenRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Пропускная способность вставки refresh token по одному и пачками, каждая пачка — своя транзакция.
+ *
+ * identity — INSERT ... RETURNING id на строку, как при GenerationType.IDENTITY (batch невозможен);
+ * sequence — saveAll сущностей: id блоками из последовательности, INSERT одним JDBC batch
+ * (hibernate.jdbc.batch_size, reWriteBatchedInserts).
+ *
+ * mvn -Ploadtest compile exec:exec -Dloadtest.main=com.example.hoteluserservce.loadtest.TokenInsertBenchmark
+ *     -Dloadtest.args="--warmup=PT5S --duration=PT20S"
+ */
+public final class TokenInsertBenchmark {
+
+    private static final int[] BATCH_SIZES = {1, 10, 100};
+
+    private static final String IDENTITY_INSERT_SQL = "INSERT INTO refresh_tokens "
+            + "(token, user_id, expires_at, created_at, revoked) VALUES (?, ?, ?, ?, false) RETURNING id";
+
+    private static final String TOKEN_PREFIX = "bench-";
+
+    private TokenInsertBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (!options.local()) {
+            throw new IllegalArgumentException("Бенчмарк вставки работает только со встроенной БД (без --base-url)");
+        }
+
+        try (LocalInstance local = LocalInstance.start(options)) {
+            RefreshTokenRepository repository = local.bean(RefreshTokenRepository.class);
+            JdbcTemplate jdbcTemplate = local.bean(JdbcTemplate.class);
+            TransactionTemplate transactionTemplate =
+                    new TransactionTemplate(local.bean(PlatformTransactionManager.class));
+
+            Inserter identity = count -> transactionTemplate.executeWithoutResult(status -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                Timestamp expiresAt = Timestamp.valueOf(LocalDateTime.now().plusDays(7));
+                for (int i = 0; i < count; i++) {
+                    jdbcTemplate.queryForObject(IDENTITY_INSERT_SQL, Long.class, newToken(), 1L, expiresAt, now);
+                }
+            });
+            Inserter sequence = count -> transactionTemplate.executeWithoutResult(status -> {
+                List<RefreshToken> tokens = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    tokens.add(RefreshToken.builder()
+                            .token(newToken())
+                            .userId(1L)
+                            .expiresAt(LocalDateTime.now().plusDays(7))
+                            .build());
+                }
+                repository.saveAll(tokens);
+            });
+
+            System.out.printf("%-8s %18s %18s%n", "Пачка", "identity, строк/с", "sequence, строк/с");
+            for (int batchSize : BATCH_SIZES) {
+                double identityRate = measure(identity, batchSize, options);
+                double sequenceRate = measure(sequence, batchSize, options);
+                System.out.printf("%-8d %18.0f %18.0f%n", batchSize, identityRate, sequenceRate);
+            }
+
+            int deleted = jdbcTemplate.update("DELETE FROM refresh_tokens WHERE token LIKE ?", TOKEN_PREFIX + "%");
+            System.out.printf("Удалено тестовых токенов: %d%n", deleted);
+        }
+        System.exit(0);
+    }
+
+    // Прогрев, затем строк в секунду за --duration
+    private static double measure(Inserter inserter, int batchSize, LoadTestOptions options) {
+        run(inserter, batchSize, options.warmup().toNanos());
+        long started = System.nanoTime();
+        long rows = run(inserter, batchSize, options.duration().toNanos());
+        return rows / ((System.nanoTime() - started) / 1e9);
+    }
+
+    private static long run(Inserter inserter, int batchSize, long durationNanos) {
+        long deadline = System.nanoTime() + durationNanos;
+        long rows = 0;
+        while (System.nanoTime() < deadline) {
+            inserter.insert(batchSize);
+            rows += batchSize;
+        }
+        return rows;
+    }
+
+    private static String newToken() {
+        return TOKEN_PREFIX + UUID.randomUUID();
+    }
+
+    @FunctionalInterface
+    private interface Inserter {
+        void insert(int count);
+    }
+}
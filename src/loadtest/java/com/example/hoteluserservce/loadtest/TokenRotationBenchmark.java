@@ -0,0 +1,144 @@
+package com.example.hoteluserservce.loadtest;
+
+import com.example.hoteluserservce.model.RefreshToken;
+import com.example.hoteluserservce.repository.RefreshTokenRepository;
+import com.example.hoteluserservce.repository.UserRepository;
+import com.example.hoteluserservce.util.PooledIdAllocator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Ротация refresh token: обращения к БД и время удержания соединения на одну ротацию.
+ *
+ * jpa — прежний путь: findByToken, findById пользователя, save отозванного и save нового токена;
+ * rotate — rotateToken (UPDATE ... RETURNING + INSERT одним выражением) и findById пользователя.
+ * Обе ротации — в транзакции, как в AuthServiceImpl.refreshToken. Запросы считает статистика Hibernate
+ * (подготовленные JDBC-выражения, COMMIT не входит). Соединение JpaTransactionManager берет в начале
+ * транзакции и возвращает после COMMIT, поэтому удержание — среднее время транзакции
+ * (hikaricp.connections.usage пишется с точностью до миллисекунды и для этого груб).
+ *
+ * mvn -Ploadtest compile exec:exec -Dloadtest.main=com.example.hoteluserservce.loadtest.TokenRotationBenchmark
+ *     -Dloadtest.args="--warmup=PT5S --duration=PT20S"
+ */
+public final class TokenRotationBenchmark {
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users (username, email, password, first_name, "
+            + "last_name, role, email_verified, account_locked, created_at) "
+            + "VALUES (?, ?, 'x', 'Bench', 'Rotation', 'USER', true, false, now()) RETURNING id";
+
+    private static final String TOKEN_PREFIX = "rotation-";
+
+    private TokenRotationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (!options.local()) {
+            throw new IllegalArgumentException("Бенчмарк ротации работает только со встроенной БД (без --base-url)");
+        }
+
+        try (LocalInstance local = LocalInstance.start(options)) {
+            RefreshTokenRepository tokenRepository = local.bean(RefreshTokenRepository.class);
+            UserRepository userRepository = local.bean(UserRepository.class);
+            PooledIdAllocator idAllocator = local.bean(PooledIdAllocator.class);
+            JdbcTemplate jdbcTemplate = local.bean(JdbcTemplate.class);
+            TransactionTemplate transactionTemplate =
+                    new TransactionTemplate(local.bean(PlatformTransactionManager.class));
+            Statistics statistics = local.bean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+            statistics.setStatisticsEnabled(true);
+
+            String suffix = UUID.randomUUID().toString().substring(0, 8);
+            Long userId = jdbcTemplate.queryForObject(INSERT_USER_SQL, Long.class,
+                    "rotation-" + suffix, "rotation-" + suffix + "@loadtest.local");
+
+            Rotation jpa = oldToken -> transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                RefreshToken token = tokenRepository.findByToken(oldToken)
+                        .filter(t -> !t.isRevoked() && t.getExpiresAt().isAfter(now))
+                        .orElseThrow();
+                userRepository.findById(token.getUserId()).orElseThrow();
+                token.setRevoked(true);
+                tokenRepository.save(token);
+                return tokenRepository.save(RefreshToken.builder()
+                        .token(newToken())
+                        .userId(token.getUserId())
+                        .expiresAt(now.plusDays(7))
+                        .build()).getToken();
+            });
+            Rotation rotate = oldToken -> transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                String next = newToken();
+                Long owner = tokenRepository.rotateToken(oldToken, idAllocator.next(RefreshToken.class), next,
+                        now.plusDays(7), now).orElseThrow();
+                userRepository.findById(owner).orElseThrow();
+                return next;
+            });
+
+            System.out.printf("%-8s %12s %16s %22s%n", "Путь", "ротаций/с", "запросов/ротацию", "удержание, мкс");
+            for (Rotation rotation : new Rotation[]{jpa, rotate}) {
+                String token = seedToken(jdbcTemplate, userId);
+                token = run(rotation, token, options.warmup().toNanos()).token();
+
+                long statements = statistics.getPrepareStatementCount();
+                long started = System.nanoTime();
+                Result result = run(rotation, token, options.duration().toNanos());
+                double seconds = (System.nanoTime() - started) / 1e9;
+
+                System.out.printf("%-8s %12.0f %16.2f %22.0f%n",
+                        rotation == jpa ? "jpa" : "rotate",
+                        result.rotations() / seconds,
+                        (statistics.getPrepareStatementCount() - statements) / (double) result.rotations(),
+                        result.transactionNanos() / 1e3 / result.rotations());
+            }
+
+            int deleted = jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+            System.out.printf("Удалено тестовых токенов: %d%n", deleted);
+        }
+        System.exit(0);
+    }
+
+    // Цепочка ротаций: каждая отзывает токен, выданный предыдущей
+    private static Result run(Rotation rotation, String token, long durationNanos) {
+        long deadline = System.nanoTime() + durationNanos;
+        long rotations = 0;
+        long transactionNanos = 0;
+        while (System.nanoTime() < deadline) {
+            long started = System.nanoTime();
+            token = rotation.rotate(token);
+            transactionNanos += System.nanoTime() - started;
+            rotations++;
+        }
+        return new Result(token, rotations, transactionNanos);
+    }
+
+    private static String seedToken(JdbcTemplate jdbcTemplate, Long userId) {
+        String token = newToken();
+        jdbcTemplate.update("INSERT INTO refresh_tokens (token, user_id, expires_at, created_at, revoked) "
+                        + "VALUES (?, ?, ?, now(), false)",
+                token, userId, Timestamp.valueOf(LocalDateTime.now().plusDays(7)));
+        return token;
+    }
+
+    private static String newToken() {
+        return TOKEN_PREFIX + UUID.randomUUID();
+    }
+
+    @FunctionalInterface
+    private interface Rotation {
+        String rotate(String oldToken);
+    }
+
+    private record Result(String token, long rotations, long transactionNanos) {
+    }
+}
+
@@ -9,7 +9,8 @@ public class DotEnvConfig {
 
     @PostConstruct
     public void loadEnv() {
-        Dotenv dotenv = Dotenv.configure().load();
+        // .env необязателен: без него используются переменные окружения и значения по умолчанию
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
         dotenv.entries().forEach(entry ->
                 System.setProperty(entry.getKey(), entry.getValue())
         );
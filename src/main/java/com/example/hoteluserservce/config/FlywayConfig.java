@@ -0,0 +1,21 @@
+package com.example.hoteluserservce.config;
+
+import com.example.hoteluserservce.util.PooledIdAllocator;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Шаг последовательностей id в V5 — та же константа, что и allocationSize сущностей
+     */
+    @Bean
+    public FlywayConfigurationCustomizer idAllocationSizePlaceholder() {
+        return configuration -> configuration.placeholders(
+                Map.of("idAllocationSize", String.valueOf(PooledIdAllocator.ALLOCATION_SIZE)));
+    }
+}
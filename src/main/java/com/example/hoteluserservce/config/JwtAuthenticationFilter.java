@@ -1,6 +1,8 @@
 package com.example.hoteluserservce.config;
 
-import com.example.hoteluserservce.util.JwtUtil;
+import com.example.hoteluserservce.util.JwtClaims;
+import com.example.hoteluserservce.util.JwtClaimsCache;
+import com.example.hoteluserservce.util.TokenEpochRegistry;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,7 +26,8 @@ import java.util.List;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final JwtClaimsCache jwtClaimsCache;
+    private final TokenEpochRegistry tokenEpochRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -35,7 +38,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         // Проверяем наличие токена
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -47,44 +49,48 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
 
         try {
-            // Извлекаем username из токена
-            username = jwtUtil.extractUsername(jwt);
+            // Проверяем подпись и срок действия один раз (или берем из кэша)
+            JwtClaims claims = jwtClaimsCache.verify(jwt);
+
+            // Сессии пользователя отозваны после выпуска токена — проверка по карте в памяти, без БД
+            if (tokenEpochRegistry.isRevoked(claims.getUserId(), claims.getTokenEpoch())) {
+                log.debug("Access token revoked for user {}", claims.getUserId());
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            String username = claims.getUsername();
 
             // Если пользователь не аутентифицирован
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                // Валидируем токен
-                if (jwtUtil.validateToken(jwt, username)) {
-
-                    // Извлекаем роль из токена
-                    String role = jwtUtil.extractRole(jwt);
-                    Long userId = jwtUtil.extractUserId(jwt);
+                String role = claims.getRole();
+                Long userId = claims.getUserId();
 
-                    // Создаем authorities
-                    List<SimpleGrantedAuthority> authorities = List.of(
-                            new SimpleGrantedAuthority("ROLE_" + role)
-                    );
+                // Создаем authorities
+                List<SimpleGrantedAuthority> authorities = List.of(
+                        new SimpleGrantedAuthority("ROLE_" + role)
+                );
 
-                    // Создаем аутентификацию
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    username,
-                                    null,
-                                    authorities
-                            );
+                // Создаем аутентификацию
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(
+                                username,
+                                null,
+                                authorities
+                        );
 
-                    // Добавляем детали запроса
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                // Добавляем детали запроса
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // Устанавливаем аутентификацию в контекст
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                // Устанавливаем аутентификацию в контекст
+                SecurityContextHolder.getContext().setAuthentication(authToken);
 
-                    // Добавляем userId в request для удобства
-                    request.setAttribute("userId", userId);
-                    request.setAttribute("userRole", role);
-                }
+                // Добавляем userId в request для удобства
+                request.setAttribute("userId", userId);
+                request.setAttribute("userRole", role);
             }
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             log.error("JWT token validation failed: {}", e.getMessage());
             // Можно отправить 401 ошибку или просто продолжить без аутентификации
         }
@@ -97,7 +103,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Пропускаем фильтр для публичных эндпоинтов
         String path = request.getRequestURI();
         return path.startsWith("/api/auth/") ||
-                path.startsWith("/actuator/") ||
+                path.equals("/actuator/health") ||
+                path.equals("/actuator/info") ||
+                path.equals("/actuator/prometheus") ||
+                path.startsWith("/.well-known/") ||
                 path.equals("/") ||
                 path.startsWith("/swagger-") ||
                 path.startsWith("/v3/api-docs");
@@ -0,0 +1,85 @@
+package com.example.hoteluserservce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import com.example.hoteluserservce.util.RecentUserWrites;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик (datasource.replicas.enabled=true).
+ *
+ * Primary-пул собирается из spring.datasource.* как и без реплик, к нему добавляется пул
+ * на каждый URL из datasource.replicas.urls. JPA, Flyway и JdbcTemplate получают
+ * ReplicaRoutingDataSource за LazyConnectionDataSourceProxy: миграции и запись — всегда на primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private final List<HikariDataSource> replicaPools = new ArrayList<>();
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 MeterRegistry meterRegistry,
+                                 RecentUserWrites recentWrites,
+                                 @Value("${datasource.replicas.urls}") List<String> urls,
+                                 @Value("${datasource.replicas.username}") String username,
+                                 @Value("${datasource.replicas.password}") String password,
+                                 @Value("${datasource.replicas.pool-size:10}") int poolSize,
+                                 @Value("${datasource.replicas.max-lag:PT2S}") Duration maxLag) {
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(urls.get(i).trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setMaximumPoolSize(poolSize);
+            pool.setReadOnly(true);
+            // Недоступная реплика не должна мешать старту: ее отметит проверка здоровья
+            pool.setInitializationFailTimeout(-1);
+            pool.setConnectionTimeout(Duration.ofSeconds(2).toMillis());
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicaPools.add(pool);
+        }
+
+        routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, List.copyOf(replicaPools),
+                recentWrites, maxLag, meterRegistry);
+        routingDataSource.checkHealth();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        if (routingDataSource != null) {
+            routingDataSource.checkHealth();
+        }
+    }
+
+    @PreDestroy
+    public void closeReplicas() {
+        replicaPools.forEach(HikariDataSource::close);
+    }
+}
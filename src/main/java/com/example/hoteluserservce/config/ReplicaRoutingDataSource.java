@@ -0,0 +1,176 @@
+package com.example.hoteluserservce.config;
+
+import com.example.hoteluserservce.util.RecentUserWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Соединения readOnly-транзакций — из пулов реплик, остальные — из primary.
+ *
+ * Решение принимается при первом запросе к БД (поверх стоит LazyConnectionDataSourceProxy),
+ * когда признак readOnly транзакции уже известен. Чтение идет на primary, если:
+ * - данные пользователя запроса записаны за последние read-your-writes (RecentUserWrites, реплика могла не догнать);
+ * - ни одна реплика не прошла проверку здоровья или отставание больше max-lag;
+ * - реплика не выдала соединение (она помечается недоступной до следующей успешной проверки).
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    static final String HEALTH_SQL = "SELECT pg_is_in_recovery(), "
+            + "COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final Duration maxLag;
+
+    // 1 — реплика принимает чтение, 0 — нет, -1 — еще не проверялась
+    private final AtomicIntegerArray healthy;
+    private final AtomicInteger next = new AtomicInteger();
+    private final RecentUserWrites recentWrites;
+
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+    private final Counter fallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<DataSource> replicas,
+                                    RecentUserWrites recentWrites,
+                                    Duration maxLag,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            healthy.set(i, -1);
+        }
+        this.recentWrites = recentWrites;
+
+        this.replicaReads = readsCounter(meterRegistry, "replica");
+        this.primaryReads = readsCounter(meterRegistry, "primary");
+        this.fallbacks = Counter.builder("datasource.replica.fallback")
+                .description("Реплика не выдала соединение, чтение ушло на primary")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.healthy", this, ReplicaRoutingDataSource::healthyCount)
+                .description("Реплики, принимающие чтение")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+
+        int replica = chooseReplica();
+        if (replica < 0) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replicas.get(replica).getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException e) {
+            markDown(replica, e.getMessage());
+            fallbacks.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Учетные данные задаются в настройках пулов");
+    }
+
+    /**
+     * Проверить реплики: доступность и отставание воспроизведения WAL
+     */
+    public void checkHealth() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                try (ResultSet rs = statement.executeQuery(HEALTH_SQL)) {
+                    rs.next();
+                    // Не реплика (например, вторая локальная база) — отставание не измеряется
+                    long lagMillis = rs.getBoolean(1) ? rs.getLong(2) : 0;
+                    if (lagMillis > maxLag.toMillis()) {
+                        markDown(i, "replication lag " + lagMillis + " ms");
+                    } else if (healthy.getAndSet(i, 1) != 1) {
+                        log.info("Read replica {} is up, lag {} ms", i, lagMillis);
+                    }
+                }
+            } catch (SQLException e) {
+                markDown(i, e.getMessage());
+            }
+        }
+    }
+
+    // Round-robin по здоровым репликам; -1 — читать с primary
+    private int chooseReplica() {
+        if (recentWrites.wroteRecently(currentUserId())) {
+            return -1;
+        }
+        int size = replicas.size();
+        if (size == 0) {
+            return -1;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            int candidate = (start + i) % size;
+            if (healthy.get(candidate) == 1) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private void markDown(int replica, String reason) {
+        if (healthy.getAndSet(replica, 0) != 0) {
+            log.warn("Read replica {} is down, reads go to primary: {}", replica, reason);
+        }
+    }
+
+    private int healthyCount() {
+        int count = 0;
+        for (int i = 0; i < healthy.length(); i++) {
+            count += healthy.get(i) == 1 ? 1 : 0;
+        }
+        return count;
+    }
+
+    // userId из access token (JwtAuthenticationFilter); вне HTTP-запроса — null
+    private static Long currentUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return attributes.getAttribute("userId", RequestAttributes.SCOPE_REQUEST) instanceof Long userId
+                ? userId : null;
+    }
+
+    private static Counter readsCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.reads")
+                .description("Соединения readOnly-транзакций по источнику")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
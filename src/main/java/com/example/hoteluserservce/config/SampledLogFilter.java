@@ -0,0 +1,49 @@
+package com.example.hoteluserservce.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Фильтр logback для профиля prod: события ниже WARN из loggerPrefix пропускаются
+ * с вероятностью rate, WARN и ERROR — всегда.
+ *
+ * Стоит на AsyncAppender, поэтому отброшенное событие не форматируется и не попадает в очередь.
+ * Настраивается в logback-spring.xml.
+ */
+public class SampledLogFilter extends Filter<ILoggingEvent> {
+
+    private double rate = 1.0;
+    private String loggerPrefix = "";
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (!isStarted() || event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!event.getLoggerName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    @Override
+    public void start() {
+        if (rate < 0 || rate > 1) {
+            addError("rate должен быть в диапазоне [0, 1], получено " + rate);
+            return;
+        }
+        super.start();
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix == null ? "" : loggerPrefix;
+    }
+}
@@ -1,19 +1,24 @@
 package com.example.hoteluserservce.config;
-import java.util.List;import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.example.hoteluserservce.util.CalibratedPasswordEncoder;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -21,6 +26,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final ServiceClientAuthenticationFilter serviceClientAuthenticationFilter;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -28,9 +34,14 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Introspection (RFC 7662) — только для аутентифицированных сервисов
+                        .requestMatchers("/api/auth/introspect", "/api/auth/introspect/**")
+                        .hasRole(ServiceClientAuthenticationFilter.ROLE)
+
                         // Публичные эндпоинты
                         .requestMatchers(
                                 "/api/auth/**",
+                                "/.well-known/jwks.json",
                                 "/actuator/health",
                                 "/actuator/info",
                                 "/swagger-ui/**",
@@ -41,8 +52,16 @@ public class SecurityConfig {
                                 "/users/**"
                         ).permitAll()
 
+                        // Пакетный поиск пользователей: администраторы и внутренние сервисы
+                        .requestMatchers(HttpMethod.POST, "/api/admin/users/batch")
+                        .hasAnyRole("ADMIN", ServiceClientAuthenticationFilter.ROLE)
+
                         // Эндпоинты для администраторов
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Метрики (в том числе входов и блокировок) не публичны: скрейпер с учетными данными сервиса или ADMIN
+                        .requestMatchers("/actuator/prometheus")
+                        .hasAnyRole("ADMIN", ServiceClientAuthenticationFilter.ROLE)
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Эндпоинты для владельцев отелей и администраторов
                         .requestMatchers("/api/hotel-owner/**").hasAnyRole("HOTEL_OWNER", "ADMIN")
@@ -53,14 +72,34 @@ public class SecurityConfig {
                         // Остальные эндпоинты требуют аутентификации
                         .anyRequest().authenticated()
                 )
+                .addFilterBefore(serviceClientAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Энкодер с префиксом алгоритма. При calibrate=true стоимость подбирается
+     * при старте под target-latency на текущем железе.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password-encoder.algorithm:bcrypt}") String algorithm,
+            @Value("${security.password-encoder.calibrate:false}") boolean calibrate,
+            @Value("${security.password-encoder.target-latency:80ms}") Duration targetLatency,
+            @Value("${security.password-encoder.max-cost:14}") int maxCost,
+            @Value("${security.password-encoder.calibration-samples:5}") int samples,
+            @Value("${security.password-encoder.bcrypt.strength:10}") int bcryptStrength,
+            @Value("${security.password-encoder.argon2.memory-kb:19456}") int argon2MemoryKb,
+            @Value("${security.password-encoder.argon2.parallelism:1}") int argon2Parallelism,
+            @Value("${security.password-encoder.argon2.iterations:2}") int argon2Iterations) {
+
+        if (calibrate) {
+            return CalibratedPasswordEncoder.calibrate(
+                    algorithm, targetLatency, maxCost, argon2MemoryKb, argon2Parallelism, samples);
+        }
+        return CalibratedPasswordEncoder.fixed(
+                algorithm, bcryptStrength, argon2MemoryKb, argon2Parallelism, argon2Iterations);
     }
 
     @Bean
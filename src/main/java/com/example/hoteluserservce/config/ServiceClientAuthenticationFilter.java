@@ -0,0 +1,97 @@
+package com.example.hoteluserservce.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Аутентификация других сервисов (шлюз, бронирования) по client id и общему секрету:
+ * Authorization: Basic base64(clientId:secret), как у клиентов RFC 7662.
+ *
+ * Клиенты задаются в security.service-clients списком id:secret через запятую.
+ * Успешный вход дает ROLE_SERVICE, неверные учетные данные — 401 без дальнейшей обработки.
+ */
+@Component
+@Slf4j
+public class ServiceClientAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String ROLE = "SERVICE";
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    private final Map<String, byte[]> secrets = new HashMap<>();
+
+    public ServiceClientAuthenticationFilter(@Value("${security.service-clients:}") List<String> clients) {
+        for (String client : clients) {
+            if (client.isBlank()) {
+                continue;
+            }
+            int colon = client.indexOf(':');
+            if (colon <= 0 || colon == client.length() - 1) {
+                throw new IllegalArgumentException("security.service-clients: ожидается id:secret");
+            }
+            secrets.put(client.substring(0, colon).trim(),
+                    client.substring(colon + 1).trim().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith(BASIC_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String clientId = authenticate(authHeader.substring(BASIC_PREFIX.length()));
+        if (clientId == null) {
+            log.warn("Service client authentication failed: {} {}", request.getMethod(), request.getRequestURI());
+            response.setHeader("WWW-Authenticate", "Basic realm=\"hotel-user-service\"");
+            // Без sendError: диспетчеризация /error прошла бы через авторизацию и вернула 403
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                clientId, null, List.of(new SimpleGrantedAuthority("ROLE_" + ROLE)));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        filterChain.doFilter(request, response);
+    }
+
+    // clientId или null, если клиент неизвестен или секрет не совпал
+    private String authenticate(String credentials) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(credentials.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int colon = decoded.indexOf(':');
+        if (colon <= 0) {
+            return null;
+        }
+        String clientId = decoded.substring(0, colon);
+        byte[] expected = secrets.get(clientId);
+        byte[] actual = decoded.substring(colon + 1).getBytes(StandardCharsets.UTF_8);
+        // Сравнение за постоянное время
+        return expected != null && MessageDigest.isEqual(expected, actual) ? clientId : null;
+    }
+}
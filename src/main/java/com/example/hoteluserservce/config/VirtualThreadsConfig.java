@@ -0,0 +1,43 @@
+package com.example.hoteluserservce.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Проверка режима виртуальных потоков (spring.threads.virtual.enabled).
+ *
+ * Путь запроса не закрепляет виртуальные потоки за carrier-потоками:
+ * HikariCP 5.1 и PostgreSQL JDBC 42.7 используют ReentrantLock вместо synchronized,
+ * а BCrypt выполняется в отдельном пуле платформенных потоков (PasswordHashingExecutor),
+ * поэтому CPU-нагрузка хеширования не занимает carrier-потоки.
+ * Пропускную способность в этом режиме ограничивает пул соединений, а не потоки Tomcat.
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadsConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @PostConstruct
+    public void checkRuntime() {
+        if (!virtualThreadsEnabled) {
+            return;
+        }
+
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            log.warn("spring.threads.virtual.enabled=true requires Java 21+, running on Java {}: " +
+                    "platform threads will be used", javaVersion);
+            return;
+        }
+
+        log.info("Virtual threads enabled for request handling (Java {}), JDBC pool size={}",
+                javaVersion, maximumPoolSize);
+    }
+}
@@ -1,16 +1,29 @@
 package com.example.hoteluserservce.controller;
 
+import com.example.hoteluserservce.dto.CursorResponse;
 import com.example.hoteluserservce.dto.PageResponse;
+import com.example.hoteluserservce.dto.user.BatchUserLookupRequest;
+import com.example.hoteluserservce.dto.user.BatchUserLookupResponse;
 import com.example.hoteluserservce.dto.user.UserDto;
 import com.example.hoteluserservce.service.AdminService;
+import com.example.hoteluserservce.service.AuthService;
+import com.example.hoteluserservce.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
 
 @RestController
 //@RequestMapping("/api/admin")
@@ -19,9 +32,57 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminController {
 
     private final AdminService adminService;
+    private final UserService userService;
+    private final AuthService authService;
 
+    // Исторический путь без /api/admin: на него завязаны существующие клиенты
     @GetMapping("/users")
     public PageResponse<UserDto> getAllUsers(Pageable pageable) {
-        return adminService.getAllUsers(pageable);
+        try {
+            return adminService.getAllUsers(pageable);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Постраничный список по cursor (nextCursor из предыдущего ответа).
+     * Сортировка по одному полю: id, createdAt, username, email — например sort=createdAt,desc
+     */
+    @GetMapping("/api/admin/users/scroll")
+    public CursorResponse<UserDto> scrollUsers(
+            @RequestParam(required = false) String cursor,
+            @PageableDefault(size = 50) Pageable pageable) {
+        try {
+            return adminService.scrollUsers(cursor, pageable.getPageSize(), pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Пакетный поиск для других сервисов: до users.batch-lookup.max-size id и username за один запрос.
+     * Ответ — users по id плюс missingIds / missingUsernames. Только ADMIN и сервисы (ROLE_SERVICE): ответ содержит email и телефоны.
+     */
+    @PostMapping("/api/admin/users/batch")
+    public BatchUserLookupResponse getUsersBatch(@RequestBody BatchUserLookupRequest request) {
+        try {
+            return userService.getUsersBatch(request.getIds(), request.getUsernames());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Отозвать все сессии пользователя (access token перестают действовать в пределах jwt.epoch.refresh-interval
+     * на остальных инстансах)
+     */
+    @PostMapping("/api/admin/users/{id}/revoke-sessions")
+    public Map<String, Object> revokeSessions(@PathVariable Long id) {
+        try {
+            return Map.of("userId", id, "revokedRefreshTokens", authService.revokeAllSessions(id));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
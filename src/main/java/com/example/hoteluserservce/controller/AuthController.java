@@ -1,19 +1,32 @@
 package com.example.hoteluserservce.controller;
 
 import com.example.hoteluserservce.dto.user.*;
+import com.example.hoteluserservce.exception.LoginRateLimitedException;
+import com.example.hoteluserservce.exception.PasswordHashingOverloadedException;
 import com.example.hoteluserservce.exception.UserAlreadyExistsException;
 import com.example.hoteluserservce.service.AuthService;
 import com.example.hoteluserservce.service.UserService;
+import com.example.hoteluserservce.util.LogRedactor;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+
+import javax.security.auth.login.AccountLockedException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -26,6 +39,9 @@ public class AuthController {
     private final UserService userService;
     private final AuthService authService;
 
+    @Value("${jwt.introspection.max-cache-age:PT60S}")
+    private Duration introspectionMaxCacheAge;
+
 
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestBody RefreshTokenRequest request) {
@@ -42,8 +58,6 @@ public class AuthController {
      */
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest request) {
-        log.info("Registration request received for email: {}", request.getEmail());
-
         try {
             UserDto registeredUser = userService.registerUser(request);
 
@@ -52,20 +66,22 @@ public class AuthController {
             response.put("message", "Пользователь успешно зарегистрирован");
             response.put("user", registeredUser);
 
-            log.info("User registered successfully: {}", registeredUser.getEmail());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
         } catch (UserAlreadyExistsException e) {
-            log.warn("Registration failed - user already exists: {}", request.getEmail());
+            log.warn("Registration failed - user already exists: {}", LogRedactor.email(request.getEmail()));
             return createErrorResponse(HttpStatus.CONFLICT, "Пользователь уже существует", e.getMessage());
 
         } catch (IllegalArgumentException e) {
             log.warn("Registration failed - invalid data: {}", e.getMessage());
             return createErrorResponse(HttpStatus.BAD_REQUEST, "Неверные данные", e.getMessage());
 
+        } catch (PasswordHashingOverloadedException e) {
+            return createOverloadedResponse(e);
+
         } catch (Exception e) {
             log.error("Unexpected error during registration for email {}: {}",
-                    request.getEmail(), e.getMessage(), e);
+                    LogRedactor.email(request.getEmail()), e.getMessage(), e);
             return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR,
                     "Внутренняя ошибка сервера", "Попробуйте позже");
         }
@@ -75,33 +91,83 @@ public class AuthController {
      * Авторизация пользователя
      */
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@Valid @RequestBody LoginRequest request) {
-        log.info("Login request received for email: {}", request.getEmail());
-
+    public ResponseEntity<?> loginUser(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
-            AuthResponse authResponse = authService.authenticateUser(request);
+            // За прокси адрес клиента берется из X-Forwarded-For при server.forward-headers-strategy
+            AuthResponse authResponse = authService.authenticateUser(request, httpRequest.getRemoteAddr());
 
-            log.info("User logged in successfully: {}", request.getEmail());
             return ResponseEntity.ok(authResponse);
 
         } catch (UsernameNotFoundException e) {
-            log.warn("Login failed - user not found: {}", request.getEmail());
+            // Неуспешный вход уже записан в AuthServiceImpl
             return createErrorResponse(HttpStatus.UNAUTHORIZED,
                     "Неверные учетные данные", "Пользователь не найден");
 
         } catch (BadCredentialsException e) {
-            log.warn("Login failed - invalid credentials: {}", request.getEmail());
             return createErrorResponse(HttpStatus.UNAUTHORIZED,
                     "Неверные учетные данные", "Неверный пароль");
 
+        } catch (AccountLockedException e) {
+            return createErrorResponse(HttpStatus.FORBIDDEN, "Аккаунт заблокирован", e.getMessage());
+
+        } catch (LoginRateLimitedException e) {
+            return createRetryAfterResponse(HttpStatus.TOO_MANY_REQUESTS, "Слишком много попыток",
+                    e.getMessage(), e.getRetryAfterSeconds());
+
+        } catch (PasswordHashingOverloadedException e) {
+            return createOverloadedResponse(e);
+
         } catch (Exception e) {
-            log.error("Unexpected error during login for email {}: {}",
-                    request.getEmail(), e.getMessage(), e);
             return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR,
                     "Внутренняя ошибка сервера", "Попробуйте позже");
         }
     }
 
+    /**
+     * Проверка, свободны ли email и/или username (для формы регистрации)
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String email,
+                                               @RequestParam(required = false) String username) {
+        try {
+            return ResponseEntity.ok(userService.checkAvailability(email, username));
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "Неверные данные", e.getMessage());
+        }
+    }
+
+    /**
+     * RFC 7662 introspection: token в application/x-www-form-urlencoded
+     */
+    @PostMapping(value = "/introspect", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<?> introspect(@RequestParam("token") String token) {
+        List<TokenIntrospectionResponse> results;
+        try {
+            results = authService.introspect(List.of(token));
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "Неверные данные", e.getMessage());
+        }
+        return ResponseEntity.ok()
+                .cacheControl(introspectionCacheControl(results))
+                .body(results.get(0));
+    }
+
+    /**
+     * Пакетная introspection для шлюза: {"tokens": [...]} -> {"results": [...]} в том же порядке
+     */
+    @PostMapping(value = "/introspect/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> introspectBatch(@RequestBody TokenIntrospectionBatchRequest request) {
+        List<TokenIntrospectionResponse> results;
+        try {
+            results = authService.introspect(request.getTokens());
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(HttpStatus.BAD_REQUEST, "Неверные данные", e.getMessage());
+        }
+        return ResponseEntity.ok()
+                .cacheControl(introspectionCacheControl(results))
+                .body(new TokenIntrospectionBatchResponse(results));
+    }
+
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
         try {
@@ -117,6 +183,23 @@ public class AuthController {
 
 
 
+    /**
+     * Ответ можно кэшировать не дольше, чем живет самый короткий из активных токенов,
+     * и не дольше max-cache-age (чтобы отзыв доходил до шлюза)
+     */
+    private CacheControl introspectionCacheControl(List<TokenIntrospectionResponse> results) {
+        long now = Instant.now().getEpochSecond();
+        long maxAge = introspectionMaxCacheAge.toSeconds();
+        for (TokenIntrospectionResponse result : results) {
+            if (result.isActive() && result.getExp() != null) {
+                maxAge = Math.min(maxAge, result.getExp() - now);
+            }
+        }
+        return maxAge > 0
+                ? CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePrivate()
+                : CacheControl.noStore();
+    }
+
     /**
      * Создание ответа с ошибкой
      */
@@ -131,4 +214,21 @@ public class AuthController {
 
         return ResponseEntity.status(status).body(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * 503 с Retry-After, когда пул хеширования паролей переполнен
+     */
+    private ResponseEntity<Map<String, Object>> createOverloadedResponse(PasswordHashingOverloadedException e) {
+        return createRetryAfterResponse(HttpStatus.SERVICE_UNAVAILABLE, "Сервис перегружен",
+                e.getMessage(), e.getRetryAfterSeconds());
+    }
+
+    private ResponseEntity<Map<String, Object>> createRetryAfterResponse(
+            HttpStatus status, String error, String message, long retryAfterSeconds) {
+        ResponseEntity<Map<String, Object>> response = createErrorResponse(status, error, message);
+
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response.getBody());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.hoteluserservce.controller;
+
+import com.example.hoteluserservce.util.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    // Новые ключи публикуются заранее на это же время, поэтому кэш не пропустит ротацию
+    @Value("${jwt.keys.publish-ahead:PT10M}")
+    private Duration jwksMaxAge;
+
+    /**
+     * Публичные ключи для локальной проверки access token в других сервисах
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwksMaxAge).cachePublic())
+                .body(keyRing.jwks());
+    }
+}
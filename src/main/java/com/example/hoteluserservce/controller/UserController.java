@@ -2,6 +2,7 @@ package com.example.hoteluserservce.controller;
 
 import com.example.hoteluserservce.dto.user.UpdateUserDto;
 import com.example.hoteluserservce.dto.user.UserDto;
+import com.example.hoteluserservce.service.AuthService;
 import com.example.hoteluserservce.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -13,6 +14,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/user")
 @RequiredArgsConstructor
@@ -20,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final AuthService authService;
 
 
     @Value("${server.port:1511}")
@@ -30,13 +34,15 @@ public class UserController {
     public ResponseEntity<UserDto> getProfile(Authentication authentication, HttpServletRequest request) {
         String username = authentication.getName();
 
-        log.info("🎯 [ОТВЕЧАЕТ ПОРТ-{}] Profile request for user: {}",
-                serverPort, username);
-
         UserDto profile = userService.getUserByUsername(username);
 
-        log.info("✅ [ОТВЕЧАЕТ ПОРТ-{}] Profile successfully returned for user: {} (ID: {})",
-                serverPort, username, profile.getId());
+        // Одно структурированное событие на запрос; port показывает, какой инстанс ответил
+        log.atInfo()
+                .addKeyValue("event", "profile_returned")
+                .addKeyValue("port", serverPort)
+                .addKeyValue("username", username)
+                .addKeyValue("userId", profile.getId())
+                .log("Profile returned");
 
         return ResponseEntity.ok(profile);
     }
@@ -50,6 +56,17 @@ public class UserController {
         return ResponseEntity.ok(updatedUser);
     }
 
+    /**
+     * Выход на всех устройствах: текущий и все остальные access/refresh token перестают действовать
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(@RequestAttribute("userId") Long userId) {
+        int revoked = authService.revokeAllSessions(userId);
+        return ResponseEntity.ok(Map.of(
+                "message", "Выход выполнен на всех устройствах",
+                "revokedRefreshTokens", revoked));
+    }
+
 
 
 
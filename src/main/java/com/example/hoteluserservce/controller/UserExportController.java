@@ -0,0 +1,81 @@
+package com.example.hoteluserservce.controller;
+
+import com.example.hoteluserservce.dto.UserExportFilter;
+import com.example.hoteluserservce.enums.UserDataFormat;
+import com.example.hoteluserservce.enums.UserRole;
+import com.example.hoteluserservce.service.UserExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@Slf4j
+public class UserExportController {
+
+    private final UserExportService userExportService;
+
+    /**
+     * Выгрузка всех пользователей потоком: format=ndjson|csv, фильтры role, verified, locked, createdSince.
+     * При Accept-Encoding: gzip ответ сжимается.
+     */
+    @GetMapping("/export")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            @RequestParam(required = false) UserRole role,
+                            @RequestParam(required = false) Boolean verified,
+                            @RequestParam(required = false) Boolean locked,
+                            @RequestParam(required = false)
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdSince,
+                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                            HttpServletResponse response) throws IOException {
+        UserDataFormat dataFormat;
+        try {
+            dataFormat = UserDataFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        UserExportFilter filter = UserExportFilter.builder()
+                .role(role)
+                .emailVerified(verified)
+                .accountLocked(locked)
+                .createdSince(createdSince)
+                .build();
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        log.info("User export request: format={}, filter={}, gzip={}", dataFormat, filter, gzip);
+
+        response.setContentType(dataFormat.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"users." + dataFormat.name().toLowerCase(Locale.ROOT) + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // syncFlush: сброс буфера доходит до клиента, а не застревает в deflater
+        OutputStream out = gzip
+                ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024, true)
+                : response.getOutputStream();
+        userExportService.exportUsers(filter, dataFormat, out);
+        if (out instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
+    }
+}
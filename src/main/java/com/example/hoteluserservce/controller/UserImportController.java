@@ -0,0 +1,43 @@
+package com.example.hoteluserservce.controller;
+
+import com.example.hoteluserservce.dto.ImportReport;
+import com.example.hoteluserservce.enums.UserDataFormat;
+import com.example.hoteluserservce.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportController {
+
+    private final UserImportService userImportService;
+
+    /**
+     * Массовый импорт: тело — NDJSON (application/x-ndjson) или CSV с заголовком (text/csv).
+     * Тело читается потоком, не целиком.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ImportReport importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                    HttpServletRequest request) throws IOException {
+        log.info("User import request received: contentType={}, contentLength={}",
+                contentType, request.getContentLengthLong());
+        try {
+            return userImportService.importUsers(request.getInputStream(), UserDataFormat.fromContentType(contentType));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
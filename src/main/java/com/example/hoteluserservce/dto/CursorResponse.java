@@ -0,0 +1,15 @@
+package com.example.hoteluserservce.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CursorResponse<T> {
+    private List<T> content;
+    private int pageSize;
+    private boolean hasNext;
+    private String nextCursor;   // Непрозрачный токен для следующей страницы, null если дальше пусто
+}
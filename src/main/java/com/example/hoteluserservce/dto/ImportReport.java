@@ -0,0 +1,27 @@
+package com.example.hoteluserservce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ImportReport {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    private List<RowError> errors;
+    // В errors попадают только первые max-errors ошибок
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String email;
+        private String message;
+    }
+}
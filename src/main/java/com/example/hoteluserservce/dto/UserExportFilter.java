@@ -0,0 +1,19 @@
+package com.example.hoteluserservce.dto;
+
+import com.example.hoteluserservce.enums.UserRole;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фильтр экспорта пользователей, null — без ограничения
+ */
+@Data
+@Builder
+public class UserExportFilter {
+    private UserRole role;
+    private Boolean emailVerified;
+    private Boolean accountLocked;
+    private LocalDateTime createdSince;
+}
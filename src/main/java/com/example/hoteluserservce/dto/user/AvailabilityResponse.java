@@ -0,0 +1,13 @@
+package com.example.hoteluserservce.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityResponse {
+    private Boolean emailAvailable;
+    private Boolean usernameAvailable;
+}
@@ -0,0 +1,13 @@
+package com.example.hoteluserservce.dto.user;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BatchUserLookupRequest {
+    private List<Long> ids;
+    private List<String> usernames;
+}
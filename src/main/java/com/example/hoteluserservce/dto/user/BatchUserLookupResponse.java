@@ -0,0 +1,16 @@
+package com.example.hoteluserservce.dto.user;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class BatchUserLookupResponse {
+    // Найденные пользователи по id (в том числе найденные по username)
+    private Map<Long, UserDto> users;
+    private List<Long> missingIds;
+    private List<String> missingUsernames;
+}
@@ -0,0 +1,25 @@
+package com.example.hoteluserservce.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Строка массового импорта. Либо password (будет захеширован), либо passwordHash (готовый BCrypt).
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportUserRow {
+    private String username;
+    private String email;
+    private String password;
+    private String passwordHash;
+    private String firstName;
+    private String lastName;
+    private String phone;
+
+    public RegisterRequest toRegisterRequest() {
+        return new RegisterRequest(username, email, password, firstName, lastName, phone);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.hoteluserservce.dto.user;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class TokenIntrospectionBatchRequest {
+    private List<String> tokens;
+}
@@ -0,0 +1,13 @@
+package com.example.hoteluserservce.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TokenIntrospectionBatchResponse {
+    // В том же порядке, что и tokens в запросе
+    private List<TokenIntrospectionResponse> results;
+}
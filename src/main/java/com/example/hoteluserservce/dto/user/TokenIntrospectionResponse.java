@@ -0,0 +1,27 @@
+package com.example.hoteluserservce.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Ответ introspection в формате RFC 7662 (поля claims — только для подписанных нами токенов)
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionResponse {
+    private boolean active;
+    // Расширение RFC 7662: active, expired или invalid
+    private String status;
+    @JsonProperty("token_type")
+    private String tokenType;
+    private String sub;
+    private String username;
+    @JsonProperty("user_id")
+    private Long userId;
+    private String role;
+    private Long iat;
+    private Long exp;
+}
@@ -0,0 +1,16 @@
+package com.example.hoteluserservce.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum JwtSigningAlgorithm {
+    HS256(false),   // Общий секрет jwt.secret (режим по умолчанию)
+    ES256(true),    // ECDSA P-256, ключи из кольца JwtKeyRing
+    EdDSA(true);    // Ed25519, ключи из кольца JwtKeyRing
+
+    private final boolean asymmetric;
+
+    JwtSigningAlgorithm(boolean asymmetric) {
+        this.asymmetric = asymmetric;
+    }
+}
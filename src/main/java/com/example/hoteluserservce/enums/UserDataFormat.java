@@ -0,0 +1,41 @@
+package com.example.hoteluserservce.enums;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Формат массового импорта и экспорта пользователей
+ */
+public enum UserDataFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    UserDataFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return MediaType.parseMediaType(mediaType + ";charset=UTF-8");
+    }
+
+    public static UserDataFormat fromContentType(MediaType contentType) {
+        if (contentType != null && "csv".equalsIgnoreCase(contentType.getSubtype())) {
+            return CSV;
+        }
+        if (contentType != null && "x-ndjson".equalsIgnoreCase(contentType.getSubtype())) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Поддерживаются только application/x-ndjson и text/csv");
+    }
+
+    public static UserDataFormat fromParameter(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Поддерживаются форматы ndjson и csv");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.hoteluserservce.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отложенная запись users.last_login.
+ *
+ * Вход только кладет время в буфер (последнее значение на пользователя),
+ * раз в flush-interval буфер уходит одним JDBC batch UPDATE только по колонке last_login —
+ * без merge всей строки и без @PreUpdate updatedAt.
+ * Размер буфера ограничен max-pending: при переполнении запись идет напрямую в БД.
+ */
+@Component
+@Slf4j
+public class LastLoginWriteBehind {
+
+    public static final String UPDATE_SQL =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int maxPending;
+    private final int batchSize;
+
+    private final ConcurrentHashMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    private final Counter flushedRows;
+    private final Counter directWrites;
+    private final Timer flushTimer;
+
+    public LastLoginWriteBehind(JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${users.last-login.write-behind.enabled:true}") boolean enabled,
+                                @Value("${users.last-login.write-behind.max-pending:100000}") int maxPending,
+                                @Value("${users.last-login.write-behind.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+
+        Gauge.builder("users.last_login.pending", pending, Map::size)
+                .description("Время входа, ожидающее записи в БД")
+                .register(meterRegistry);
+        this.flushedRows = Counter.builder("users.last_login.flushed")
+                .register(meterRegistry);
+        this.directWrites = Counter.builder("users.last_login.direct")
+                .description("Записи мимо буфера (буфер выключен или переполнен)")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("users.last_login.flush")
+                .register(meterRegistry);
+    }
+
+    public void record(Long userId, LocalDateTime lastLogin) {
+        if (enabled && (pending.size() < maxPending || pending.containsKey(userId))) {
+            pending.merge(userId, lastLogin, LastLoginWriteBehind::latest);
+            return;
+        }
+
+        directWrites.increment();
+        jdbcTemplate.update(UPDATE_SQL, Timestamp.valueOf(lastLogin), userId, Timestamp.valueOf(lastLogin));
+    }
+
+    @Scheduled(fixedDelayString = "${users.last-login.write-behind.flush-interval:PT5S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushTimer.record(this::flushPending);
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        log.info("Flushing {} pending last-login updates before shutdown", pending.size());
+        flushPending();
+    }
+
+    private void flushPending() {
+        List<Map.Entry<Long, LocalDateTime>> batch = new ArrayList<>(batchSize);
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            // remove(key, value): более новое значение, записанное параллельно, останется в буфере
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+            if (batch.size() == batchSize) {
+                writeBatch(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<Map.Entry<Long, LocalDateTime>> batch) {
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+                Timestamp lastLogin = Timestamp.valueOf(entry.getValue());
+                ps.setTimestamp(1, lastLogin);
+                ps.setLong(2, entry.getKey());
+                ps.setTimestamp(3, lastLogin);
+            });
+            flushedRows.increment(batch.size());
+        } catch (Exception e) {
+            log.error("Failed to flush {} last-login updates, will retry: {}", batch.size(), e.getMessage());
+            batch.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), LastLoginWriteBehind::latest));
+        }
+    }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
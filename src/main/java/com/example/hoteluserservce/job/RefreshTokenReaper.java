@@ -0,0 +1,245 @@
+package com.example.hoteluserservce.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фоновая очистка refresh_tokens от истекших и отозванных токенов.
+ *
+ * Работает порциями по batch-size строк, каждая порция — отдельная короткая транзакция
+ * (autocommit), строки под чужой блокировкой пропускаются (SKIP LOCKED).
+ * При нескольких инстансах работает только тот, кто взял advisory lock.
+ *
+ * В режиме partition таблица должна быть секционирована по expires_at
+ * (см. db/refresh_tokens_partitioned.sql): истекшие дни удаляются через DROP секции,
+ * а не построчно, и секции на ближайшие дни создаются заранее.
+ */
+@Component
+@Slf4j
+public class RefreshTokenReaper {
+
+    // Произвольный, но постоянный ключ pg_advisory_lock для этой задачи
+    private static final long ADVISORY_LOCK_KEY = 0x7265667265736800L;
+    private static final String PARTITION_PREFIX = "refresh_tokens_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final boolean partitioned;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration revokedRetention;
+    private final int partitionsAhead;
+    private final long refreshTokenExpiration;
+
+    private final Counter purgedRows;
+    private final Counter droppedPartitions;
+    private final AtomicLong tableSizeBytes = new AtomicLong();
+
+    public RefreshTokenReaper(JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${refresh-tokens.reaper.enabled:true}") boolean enabled,
+                              @Value("${refresh-tokens.reaper.mode:delete}") String mode,
+                              @Value("${refresh-tokens.reaper.batch-size:1000}") int batchSize,
+                              @Value("${refresh-tokens.reaper.max-batches-per-run:500}") int maxBatchesPerRun,
+                              @Value("${refresh-tokens.reaper.revoked-retention:PT1H}") Duration revokedRetention,
+                              @Value("${refresh-tokens.reaper.partitions-ahead:3}") int partitionsAhead,
+                              @Value("${jwt.refresh-token.expiration}") long refreshTokenExpiration) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.partitioned = "partition".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.revokedRetention = revokedRetention;
+        this.partitionsAhead = partitionsAhead;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+
+        this.purgedRows = Counter.builder("refresh_tokens.purged")
+                .description("Удаленные истекшие и отозванные refresh token")
+                .register(meterRegistry);
+        this.droppedPartitions = Counter.builder("refresh_tokens.partitions.dropped")
+                .register(meterRegistry);
+        Gauge.builder("refresh_tokens.table.size", tableSizeBytes, AtomicLong::get)
+                .description("Размер таблицы refresh_tokens с индексами (на момент последней очистки)")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${refresh-tokens.reaper.interval:PT10M}",
+            initialDelayString = "${refresh-tokens.reaper.initial-delay:PT1M}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                // Каждая порция коммитится сразу, чтобы не держать блокировки
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(true);
+                try {
+                    if (!tryLock(connection)) {
+                        log.debug("Refresh token reaper is running on another instance, skipping");
+                        return null;
+                    }
+                    try {
+                        runLocked(connection);
+                    } finally {
+                        unlock(connection);
+                    }
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Refresh token purge failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void runLocked(Connection connection) throws SQLException {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (partitioned) {
+            createUpcomingPartitions(connection, now.toLocalDate());
+            dropExpiredPartitions(connection, now);
+        }
+
+        long deleted = deleteInBatches(connection, now);
+        tableSizeBytes.set(queryTableSize(connection));
+
+        log.info("Refresh token purge finished: deleted={}, tableSize={} bytes, took {} ms",
+                deleted, tableSizeBytes.get(), System.currentTimeMillis() - started);
+    }
+
+    private long deleteInBatches(Connection connection, LocalDateTime now) throws SQLException {
+        String sql = """
+                DELETE FROM refresh_tokens
+                WHERE id IN (
+                    SELECT id FROM refresh_tokens
+                    WHERE expires_at < ? OR (revoked = true AND created_at < ?)
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                """;
+
+        long total = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setTimestamp(1, Timestamp.valueOf(now));
+            statement.setTimestamp(2, Timestamp.valueOf(now.minus(revokedRetention)));
+            statement.setInt(3, batchSize);
+
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int deleted = statement.executeUpdate();
+                total += deleted;
+                purgedRows.increment(deleted);
+                if (deleted < batchSize) {
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    // Секция за день D содержит токены с expires_at в [D, D+1)
+    private void createUpcomingPartitions(Connection connection, LocalDate today) throws SQLException {
+        long lifetimeDays = Duration.ofMillis(refreshTokenExpiration).toDays() + 1;
+        try (Statement statement = connection.createStatement()) {
+            for (long day = 0; day <= lifetimeDays + partitionsAhead; day++) {
+                LocalDate from = today.plusDays(day);
+                try {
+                    statement.execute("CREATE TABLE IF NOT EXISTS " + partitionName(from)
+                            + " PARTITION OF refresh_tokens FOR VALUES FROM ('" + from + "') TO ('" + from.plusDays(1) + "')");
+                } catch (SQLException e) {
+                    // В секции DEFAULT уже есть строки за этот день: они останутся там до построчной очистки
+                    log.warn("Cannot create refresh token partition {}: {}", partitionName(from), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void dropExpiredPartitions(Connection connection, LocalDateTime now) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("""
+                     SELECT c.relname FROM pg_inherits i
+                     JOIN pg_class c ON c.oid = i.inhrelid
+                     JOIN pg_class p ON p.oid = i.inhparent
+                     WHERE p.relname = 'refresh_tokens'
+                     """)) {
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        }
+
+        LocalDate today = now.toLocalDate();
+        try (Statement statement = connection.createStatement()) {
+            for (String partition : partitions) {
+                if (!partition.startsWith(PARTITION_PREFIX)) {
+                    continue;
+                }
+                LocalDate day = LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+                // Все токены секции истекли, если ее верхняя граница уже в прошлом
+                if (!day.plusDays(1).isAfter(today)) {
+                    statement.execute("DROP TABLE IF EXISTS " + partition);
+                    droppedPartitions.increment();
+                    log.info("Dropped expired refresh token partition: {}", partition);
+                }
+            }
+        }
+    }
+
+    private long queryTableSize(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("""
+                     SELECT pg_total_relation_size('refresh_tokens')
+                          + COALESCE((SELECT SUM(pg_total_relation_size(i.inhrelid))
+                                      FROM pg_inherits i
+                                      WHERE i.inhparent = 'refresh_tokens'::regclass), 0)
+                     """)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            statement.execute();
+        }
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.hoteluserservce.model;
 
 
+import com.example.hoteluserservce.util.PooledIdAllocator;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -16,7 +17,10 @@ import java.time.LocalDateTime;
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Блоками из последовательности (шаг задает V5): INSERT без RETURNING id, пакетами
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_id_seq")
+    @SequenceGenerator(name = "refresh_tokens_id_seq", sequenceName = "refresh_tokens_id_seq",
+            allocationSize = PooledIdAllocator.ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -1,6 +1,7 @@
 package com.example.hoteluserservce.model;
 
 import com.example.hoteluserservce.enums.UserRole;
+import com.example.hoteluserservce.util.PooledIdAllocator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
 import lombok.*;
@@ -17,7 +18,10 @@ import java.time.LocalDateTime;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Блоками из последовательности (шаг задает V5): INSERT без RETURNING id, пакетами
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq",
+            allocationSize = PooledIdAllocator.ALLOCATION_SIZE)
     private Long id;
 
     @Column( nullable = false)
@@ -26,8 +30,9 @@ public class User {
     @Column(unique = true, nullable = false)
     private String email;
 
+    // {bcrypt}$2a$... или {argon2}$argon2id$...; старые хеши — BCrypt без префикса
     @Column(nullable = false)
-    @Size(min = 60, max = 60)
+    @Size(min = 60, max = 255)
     private String password;
 
     @Column(name = "first_name")
@@ -49,12 +54,20 @@ public class User {
     @Column(name = "account_locked")
     private boolean accountLocked = false;
 
+    // Увеличивается при отзыве всех сессий; пишется в access token (claim "epoch")
+    @Column(name = "token_epoch", nullable = false)
+    @Builder.Default
+    private int tokenEpoch = 0;
+
+    @Column(name = "token_epoch_changed_at")
+    private LocalDateTime tokenEpochChangedAt;
+
 
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
 
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
@@ -3,10 +3,57 @@ package com.example.hoteluserservce.repository;
 import com.example.hoteluserservce.model.RefreshToken;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
   Optional<RefreshToken>findByToken(String refreshToken);
+
+  /**
+   * Ротация за один запрос: отзывает старый токен, только если он не отозван и не истек,
+   * и в том же выражении вставляет новый. Возвращает userId или пусто, если старый токен не подошел.
+   * id нового токена — из PooledIdAllocator.
+   */
+  @Query(value = """
+          WITH revoked AS (
+              UPDATE refresh_tokens
+              SET revoked = true
+              WHERE token = :oldToken AND revoked = false AND expires_at > :now
+              RETURNING user_id
+          )
+          INSERT INTO refresh_tokens (id, token, user_id, expires_at, created_at, revoked)
+          SELECT :id, :newToken, user_id, :expiresAt, :now, false FROM revoked
+          RETURNING user_id
+          """, nativeQuery = true)
+  Optional<Long> rotateToken(@Param("oldToken") String oldToken,
+                             @Param("id") Long id,
+                             @Param("newToken") String newToken,
+                             @Param("expiresAt") LocalDateTime expiresAt,
+                             @Param("now") LocalDateTime now);
+
+  /**
+   * Вставка без SELECT/возврата id — один запрос к БД; id — из PooledIdAllocator
+   */
+  @Modifying
+  @Query(value = """
+          INSERT INTO refresh_tokens (id, token, user_id, expires_at, created_at, revoked)
+          VALUES (:id, :token, :userId, :expiresAt, :now, false)
+          """, nativeQuery = true)
+  int insertToken(@Param("id") Long id,
+                  @Param("token") String token,
+                  @Param("userId") Long userId,
+                  @Param("expiresAt") LocalDateTime expiresAt,
+                  @Param("now") LocalDateTime now);
+
+  /**
+   * Отзыв всех активных refresh token пользователя (выход на всех устройствах)
+   */
+  @Modifying
+  @Query("update RefreshToken t set t.revoked = true where t.userId = :userId and t.revoked = false")
+  int revokeAllByUserId(@Param("userId") Long userId);
 }
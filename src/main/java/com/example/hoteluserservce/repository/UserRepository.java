@@ -1,20 +1,67 @@
 package com.example.hoteluserservce.repository;
 
+import com.example.hoteluserservce.dto.user.UserDto;
 import com.example.hoteluserservce.model.User;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserScrollRepository {
 
-    Optional<User> findByEmail(String email);
+    // Email сравнивается без учета регистра (индекс idx_users_email_lower)
+    @Query("select u from User u where lower(u.email) = lower(:email)")
+    Optional<User> findByEmail(@Param("email") String email);
     Optional<User> findByUsername(String username);
 
-    boolean existsByEmail( String email);
+    @Query("select count(u) > 0 from User u where lower(u.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
 
 
     boolean existsByUsername( String username);
+
+    // Проекции для чтения: только колонки UserDto, без пароля и без managed-сущности
+    String USER_DTO_SELECT = "select new com.example.hoteluserservce.dto.user.UserDto("
+            + "u.id, u.username, u.email, u.firstName, u.lastName, u.phone, u.role, u.emailVerified, u.createdAt) "
+            + "from User u ";
+
+    @Query(USER_DTO_SELECT + "where u.id = :id")
+    Optional<UserDto> findDtoById(@Param("id") Long id);
+
+    @Query(USER_DTO_SELECT + "where u.username = :username")
+    Optional<UserDto> findDtoByUsername(@Param("username") String username);
+
+    @Query(USER_DTO_SELECT + "where lower(u.email) = lower(:email)")
+    Optional<UserDto> findDtoByEmail(@Param("email") String email);
+
+    // Пакетная загрузка: один IN-запрос вместо N findDtoById
+    @Query(USER_DTO_SELECT + "where u.id in :ids")
+    List<UserDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(USER_DTO_SELECT + "where u.username in :usernames")
+    List<UserDto> findDtosByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    @Query(value = USER_DTO_SELECT,
+            countQuery = "select count(u) from User u")
+    Page<UserDto> findAllDtos(Pageable pageable);
+
+    // Точечные UPDATE без загрузки и merge всей сущности (last_login пишет LastLoginWriteBehind)
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+    @Modifying
+    @Query("update User u set u.accountLocked = true where u.id = :id")
+    int lockAccount(@Param("id") Long id);
 }
@@ -0,0 +1,20 @@
+package com.example.hoteluserservce.repository;
+
+import com.example.hoteluserservce.dto.user.UserDto;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+/**
+ * Keyset-прокрутка пользователей сразу в UserDto.
+ *
+ * Fluent findBy по Specification загружает сущности целиком (с хешем пароля),
+ * а производный запрос с Window не умеет проекцию в класс, поэтому JPQL собирается вручную.
+ */
+public interface UserScrollRepository {
+
+    /**
+     * Следующие limit строк после position в порядке (order, id); поле order проверяет UserCursorCodec
+     */
+    Window<UserDto> scrollDtos(Sort.Order order, KeysetScrollPosition position, int limit);
+}
@@ -0,0 +1,69 @@
+package com.example.hoteluserservce.repository;
+
+import com.example.hoteluserservce.dto.user.UserDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class UserScrollRepositoryImpl implements UserScrollRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Window<UserDto> scrollDtos(Sort.Order order, KeysetScrollPosition position, int limit) {
+        String property = order.getProperty();
+        boolean byId = "id".equals(property);
+        String field = "u." + property;
+        String direction = order.isAscending() ? " asc" : " desc";
+        String compare = order.isAscending() ? " > " : " < ";
+
+        // id — второй ключ в том же направлении: порядок однозначен при равных значениях поля
+        StringBuilder jpql = new StringBuilder(UserRepository.USER_DTO_SELECT);
+        if (!position.isInitial()) {
+            jpql.append(byId
+                    ? "where u.id" + compare + ":id "
+                    : "where " + field + compare + ":value or (" + field + " = :value and u.id" + compare + ":id) ");
+        }
+        jpql.append("order by ").append(field).append(direction);
+        if (!byId) {
+            jpql.append(", u.id").append(direction);
+        }
+
+        // Лишняя строка — признак следующей страницы
+        TypedQuery<UserDto> query = entityManager.createQuery(jpql.toString(), UserDto.class)
+                .setMaxResults(limit + 1);
+        if (!position.isInitial()) {
+            query.setParameter("id", position.getKeys().get("id"));
+            if (!byId) {
+                query.setParameter("value", position.getKeys().get(property));
+            }
+        }
+
+        List<UserDto> rows = query.getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<UserDto> content = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(content, index -> ScrollPosition.forward(keys(property, content.get(index))), hasNext);
+    }
+
+    private static Map<String, Object> keys(String property, UserDto user) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        switch (property) {
+            case "createdAt" -> keys.put(property, user.getCreatedAt());
+            case "username" -> keys.put(property, user.getUsername());
+            case "email" -> keys.put(property, user.getEmail());
+            default -> {
+            }
+        }
+        keys.put("id", user.getId());
+        return keys;
+    }
+}
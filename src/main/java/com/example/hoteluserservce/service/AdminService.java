@@ -1,12 +1,19 @@
 package com.example.hoteluserservce.service;
 
+import com.example.hoteluserservce.dto.CursorResponse;
 import com.example.hoteluserservce.dto.PageResponse;
 import com.example.hoteluserservce.dto.user.UserDto;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 
 public interface AdminService {
 
     PageResponse<UserDto> getAllUsers(Pageable pageable);
 
+    /**
+     * Keyset-пагинация: без OFFSET и без COUNT, время ответа не зависит от глубины
+     */
+    CursorResponse<UserDto> scrollUsers(String cursor, int size, Sort sort);
+
 }
@@ -3,12 +3,17 @@ package com.example.hoteluserservce.service;
 import com.example.hoteluserservce.dto.user.AuthResponse;
 import com.example.hoteluserservce.dto.user.LoginRequest;
 import com.example.hoteluserservce.dto.user.RefreshTokenRequest;
+import com.example.hoteluserservce.dto.user.TokenIntrospectionResponse;
 
 import javax.security.auth.login.AccountLockedException;
+import java.util.List;
 
 public interface AuthService {
 
-    AuthResponse authenticateUser(LoginRequest request) throws AccountLockedException;
+    /**
+     * Вход по email и паролю; clientIp — для ограничения числа попыток (может быть null)
+     */
+    AuthResponse authenticateUser(LoginRequest request, String clientIp) throws AccountLockedException;
 
 
     AuthResponse refreshToken(RefreshTokenRequest request) throws AccountLockedException;
@@ -16,4 +21,17 @@ public interface AuthService {
 
    void logout(String refreshToken);
 
+    /**
+     * Выход на всех устройствах: новая эпоха токенов (все выпущенные access token отклоняются)
+     * и отзыв всех refresh token. Возвращает число отозванных refresh token.
+     */
+    int revokeAllSessions(Long userId);
+
+    /**
+     * RFC 7662: состояние access token, каждый токен разбирается один раз (через кэш claims)
+     *
+     * @throws IllegalArgumentException если токенов нет или больше jwt.introspection.max-batch-size
+     */
+    List<TokenIntrospectionResponse> introspect(List<String> tokens);
+
 }
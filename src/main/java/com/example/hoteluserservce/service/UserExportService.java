@@ -0,0 +1,17 @@
+package com.example.hoteluserservce.service;
+
+import com.example.hoteluserservce.dto.UserExportFilter;
+import com.example.hoteluserservce.enums.UserDataFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+public interface UserExportService {
+
+    /**
+     * Потоковая выгрузка пользователей в out, возвращает число строк
+     */
+    long exportUsers(UserExportFilter filter, UserDataFormat format, OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,17 @@
+package com.example.hoteluserservce.service;
+
+import com.example.hoteluserservce.dto.ImportReport;
+import com.example.hoteluserservce.enums.UserDataFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+
+public interface UserImportService {
+
+    /**
+     * Потоковый импорт пользователей (NDJSON или CSV с заголовком) с отчетом по строкам
+     */
+    ImportReport importUsers(InputStream input, UserDataFormat format) throws IOException;
+
+}
@@ -1,11 +1,15 @@
 package com.example.hoteluserservce.service;
 
 import com.example.hoteluserservce.dto.PageResponse;
+import com.example.hoteluserservce.dto.user.AvailabilityResponse;
+import com.example.hoteluserservce.dto.user.BatchUserLookupResponse;
 import com.example.hoteluserservce.dto.user.RegisterRequest;
 import com.example.hoteluserservce.dto.user.UpdateUserDto;
 import com.example.hoteluserservce.dto.user.UserDto;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+
 
 public interface UserService {
 
@@ -16,8 +20,17 @@ public interface UserService {
 
     UserDto getUserByUsername(String username);
 
+    UserDto getUserByEmail(String email);
+
     UserDto updateUserByUsername(String username, UpdateUserDto updateDto);
 
+    AvailabilityResponse checkAvailability(String email, String username);
+
+    /**
+     * Пакетный поиск по id и username: один запрос на вид ключа, ненайденные — отдельными списками
+     */
+    BatchUserLookupResponse getUsersBatch(Collection<Long> ids, Collection<String> usernames);
+
 
 
 
@@ -1,33 +1,66 @@
 package com.example.hoteluserservce.service.impl;
 
+import com.example.hoteluserservce.dto.CursorResponse;
 import com.example.hoteluserservce.dto.PageResponse;
 import com.example.hoteluserservce.dto.user.UserDto;
-import com.example.hoteluserservce.mapper.UserMapper;
-import com.example.hoteluserservce.model.User;
 import com.example.hoteluserservce.repository.UserRepository;
 import com.example.hoteluserservce.service.AdminService;
+import com.example.hoteluserservce.util.UserCursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AdminServiceImpl implements AdminService {
     private final UserRepository userRepository;
-    private final UserMapper userMapper;
+    private final UserCursorCodec cursorCodec;
 
     @Override
+    @Transactional(readOnly = true)
     public PageResponse<UserDto> getAllUsers(Pageable pageable) {
         log.info("Getting all users with pagination: page={}, size={}",
                 pageable.getPageNumber(), pageable.getPageSize());
 
-        Page<User> userPage = userRepository.findAll(pageable);
+        // Иначе sort уходит в JPQL как есть: сортировка по паролю или 500 на неизвестном поле
+        cursorCodec.checkSupported(pageable.getSort());
 
-        Page<UserDto> userDtoPage = userPage.map(userMapper::toUserDto);
+        // Проекция сразу в UserDto: без загрузки сущностей и dirty checking
+        Page<UserDto> userDtoPage = userRepository.findAllDtos(pageable);
 
         return PageResponse.from(userDtoPage);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorResponse<UserDto> scrollUsers(String cursor, int size, Sort sort) {
+        Sort.Order order = cursorCodec.resolveOrder(sort);
+        KeysetScrollPosition position = cursorCodec.decode(cursor, order);
+
+        log.info("Scrolling users: sort={}, size={}, cursor={}", order, size, cursor != null);
+
+        // Только колонки UserDto, без пароля и managed-сущностей
+        Window<UserDto> window = userRepository.scrollDtos(order, position, size);
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            ScrollPosition last = window.positionAt(window.size() - 1);
+            nextCursor = cursorCodec.encode(order, (KeysetScrollPosition) last);
+        }
+
+        return CursorResponse.<UserDto>builder()
+                .content(window.getContent())
+                .pageSize(size)
+                .hasNext(window.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
 }
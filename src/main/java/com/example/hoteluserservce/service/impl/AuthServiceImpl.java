@@ -2,24 +2,52 @@ package com.example.hoteluserservce.service.impl;
 import com.example.hoteluserservce.dto.user.AuthResponse;
 import com.example.hoteluserservce.dto.user.LoginRequest;
 import com.example.hoteluserservce.dto.user.RefreshTokenRequest;
+import com.example.hoteluserservce.dto.user.TokenIntrospectionResponse;
+import com.example.hoteluserservce.exception.LoginRateLimitedException;
+import com.example.hoteluserservce.exception.PasswordHashingOverloadedException;
+import com.example.hoteluserservce.job.LastLoginWriteBehind;
 import com.example.hoteluserservce.mapper.UserMapper;
 import com.example.hoteluserservce.model.RefreshToken;
 import com.example.hoteluserservce.model.User;
 import com.example.hoteluserservce.repository.RefreshTokenRepository;
 import com.example.hoteluserservce.repository.UserRepository;
 import com.example.hoteluserservce.service.AuthService;
+import com.example.hoteluserservce.util.AuthMetrics;
+import com.example.hoteluserservce.util.AuthMetrics.Failure;
+import com.example.hoteluserservce.util.AuthMetrics.Stage;
+import com.example.hoteluserservce.util.JwtClaims;
+import com.example.hoteluserservce.util.JwtClaimsCache;
 import com.example.hoteluserservce.util.JwtUtil;
+import com.example.hoteluserservce.util.LogRedactor;
+import com.example.hoteluserservce.util.LoginRateLimiter;
+import com.example.hoteluserservce.util.PasswordHashingExecutor;
+import com.example.hoteluserservce.util.PooledIdAllocator;
+import com.example.hoteluserservce.util.RecentUserWrites;
+import com.example.hoteluserservce.util.TokenEpochRegistry;
+import com.example.hoteluserservce.util.UserLookupCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import javax.security.auth.login.AccountLockedException;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.example.hoteluserservce.util.AuthMetrics.Flow.LOGIN;
+import static com.example.hoteluserservce.util.AuthMetrics.Flow.REFRESH;
 
 @Service
 @RequiredArgsConstructor
@@ -32,55 +60,90 @@ public class AuthServiceImpl implements AuthService {
     @Value("${jwt.refresh-token.expiration}")
     private Long refreshTokenExpiration;
 
+    @Value("${jwt.introspection.max-batch-size:100}")
+    private int introspectionMaxBatchSize;
+
 
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final RefreshTokenRepository tokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final UserMapper userMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final LastLoginWriteBehind lastLoginWriteBehind;
+    private final JwtClaimsCache jwtClaimsCache;
+    private final AuthMetrics authMetrics;
+    private final LoginRateLimiter loginRateLimiter;
+    private final UserLookupCache userLookupCache;
+    private final TokenEpochRegistry tokenEpochRegistry;
+    private final PooledIdAllocator idAllocator;
+    private final RecentUserWrites recentUserWrites;
 
 
     @Override
-    public AuthResponse authenticateUser(LoginRequest request) throws AccountLockedException {
-        log.info("Attempting to authenticate user: {}", request.getEmail());
+    public AuthResponse authenticateUser(LoginRequest request, String clientIp) throws AccountLockedException {
+        log.debug("Attempting to authenticate user: {}", LogRedactor.email(request.getEmail()));
+        Timer.Sample sample = authMetrics.start();
 
         try {
+            // 0. Лимит попыток по IP и email — до запроса в БД и BCrypt
+            loginRateLimiter.acquire(request.getEmail(), clientIp);
+
             // 1. Найти пользователя по email
-            User user = userRepository.findByEmail(request.getEmail())
+            User user = authMetrics.time(LOGIN, Stage.USER_LOOKUP, () -> userRepository.findByEmail(request.getEmail()))
                     .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден"));
 
             // 2. Проверить, не заблокирован ли аккаунт
             if (user.isAccountLocked()) {
-                log.warn("Attempt to login with locked account: {}", request.getEmail());
                 throw new AccountLockedException("Аккаунт заблокирован");
             }
 
             // 3. Проверить пароль
-            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-                log.warn("Invalid password for user: {}", request.getEmail());
+            boolean passwordValid = authMetrics.time(LOGIN, Stage.PASSWORD_VERIFY,
+                    () -> passwordHashingExecutor.matches(request.getPassword(), user.getPassword()));
+            if (!passwordValid) {
+                if (loginRateLimiter.recordFailure(request.getEmail())) {
+                    lockAccount(user);
+                }
                 throw new BadCredentialsException("Неверный пароль");
             }
+            loginRateLimiter.recordSuccess(request.getEmail());
+
+            // Перехешировать пароль, если алгоритм или стоимость изменились (вне транзакции)
+            String upgradedHash = passwordHashingExecutor.upgradeEncoding(user.getPassword())
+                    ? authMetrics.time(LOGIN, Stage.PASSWORD_HASH, () -> passwordHashingExecutor.encode(request.getPassword()))
+                    : null;
 
             // 4. Генерировать токены
-            String accessToken = jwtUtil.generateAccessToken(user);
+            String accessToken = authMetrics.time(LOGIN, Stage.TOKEN_SIGN, () -> jwtUtil.generateAccessToken(user));
             String refreshToken = jwtUtil.generateRefreshToken();
 
-            // 5. Сохранить refresh token в базе
-            RefreshToken refreshTokenEntity = RefreshToken.builder()
-                    .token(refreshToken)
-                    .userId(user.getId())
-                    .expiresAt(LocalDateTime.now().plus(
-                            Duration.ofMillis(refreshTokenExpiration)
-                    ))
-                    .build();
-
-            tokenRepository.save(refreshTokenEntity);
-
-            // 6. Обновить время последнего входа
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
+            // 5. Одна короткая транзакция только после проверки пароля:
+            // вставка refresh token (и новый хеш пароля, если он есть)
+            LocalDateTime now = LocalDateTime.now();
+            authMetrics.time(LOGIN, Stage.TOKEN_PERSIST, () -> transactionTemplate.executeWithoutResult(status -> {
+                tokenRepository.insertToken(idAllocator.next(RefreshToken.class), refreshToken, user.getId(),
+                        now.plus(Duration.ofMillis(refreshTokenExpiration)), now);
+                if (upgradedHash != null) {
+                    userRepository.updatePassword(user.getId(), upgradedHash);
+                }
+                recentUserWrites.record(user.getId());
+            }));
+
+            // 6. Время последнего входа пишется в БД отложенно, пакетом
+            authMetrics.time(LOGIN, Stage.USER_UPDATE, () -> lastLoginWriteBehind.record(user.getId(), now));
+            user.setLastLogin(now);
+            if (upgradedHash != null) {
+                user.setPassword(upgradedHash);
+                log.info("Password hash upgraded for user: {}", user.getId());
+            }
 
-            log.info("User authenticated successfully: {}", user.getEmail());
+            log.atInfo()
+                    .addKeyValue("event", "login_success")
+                    .addKeyValue("userId", user.getId())
+                    .addKeyValue("email", LogRedactor.email(user.getEmail()))
+                    .log("User authenticated");
+            authMetrics.success(sample, LOGIN);
 
             // 7. Вернуть ответ
             return AuthResponse.builder()
@@ -92,73 +155,87 @@ public class AuthServiceImpl implements AuthService {
                     .build();
 
         } catch (UsernameNotFoundException | BadCredentialsException | AccountLockedException e) {
-            log.error("Authentication failed for user {}: {}", request.getEmail(), e.getMessage());
+            Failure failure = e instanceof UsernameNotFoundException ? Failure.NOT_FOUND
+                    : e instanceof BadCredentialsException ? Failure.BAD_PASSWORD : Failure.LOCKED;
+            // Единственная строка на неуспешный вход (контроллер ее не дублирует)
+            log.atWarn()
+                    .addKeyValue("event", "login_failure")
+                    .addKeyValue("reason", failure.name().toLowerCase(Locale.ROOT))
+                    .addKeyValue("email", LogRedactor.email(request.getEmail()))
+                    .log("Login failed");
+            authMetrics.failure(sample, LOGIN, failure);
+            throw e;
+        } catch (LoginRateLimitedException e) {
+            log.warn("Login rate limited for {} from {}: {}",
+                    LogRedactor.email(request.getEmail()), clientIp, e.getMessage());
+            authMetrics.failure(sample, LOGIN, Failure.RATE_LIMITED);
+            throw e;
+        } catch (PasswordHashingOverloadedException e) {
+            authMetrics.failure(sample, LOGIN, Failure.OVERLOADED);
             throw e;
         } catch (Exception e) {
             log.error("Unexpected error during authentication for user {}: {}",
-                    request.getEmail(), e.getMessage(), e);
+                    LogRedactor.email(request.getEmail()), e.getMessage(), e);
+            authMetrics.failure(sample, LOGIN, Failure.ERROR);
             throw new RuntimeException("Ошибка аутентификации", e);
         }
     }
 
+    /**
+     * Блокировка после серии неверных паролей; снимается вручную (users.account_locked = false)
+     */
+    private void lockAccount(User user) {
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.lockAccount(user.getId());
+            // Уже выданные access token тоже перестают действовать
+            tokenEpochRegistry.bump(user.getId());
+            tokenRepository.revokeAllByUserId(user.getId());
+            recentUserWrites.record(user.getId());
+        });
+        userLookupCache.evict(user.getId(), user.getUsername(), user.getEmail());
+        log.warn("Account locked after repeated failed logins: {}", user.getId());
+    }
+
     @Override
-    @Transactional
+    @Transactional(rollbackFor = AccountLockedException.class, noRollbackFor = IllegalArgumentException.class)
     public AuthResponse refreshToken(RefreshTokenRequest request) throws AccountLockedException {
-        log.info("Attempting to refresh token: {}", request.getRefreshToken());
+        log.debug("Attempting to refresh token: {}", LogRedactor.token(request.getRefreshToken()));
+        Timer.Sample sample = authMetrics.start();
 
         try {
-            // 1. Найти refresh token в базе данных
-            RefreshToken refreshTokenEntity = tokenRepository.findByToken(request.getRefreshToken())
-                    .orElseThrow(() -> new IllegalArgumentException("Недействительный refresh token"));
-
-            // 2. Проверить, не отозван ли токен
-            if (refreshTokenEntity.isRevoked()) {
-                log.warn("Attempt to use revoked refresh token: {}", request.getRefreshToken());
-                throw new IllegalArgumentException("Refresh token отозван");
-            }
-
-            // 3. Проверить срок действия
-            if (refreshTokenEntity.getExpiresAt().isBefore(LocalDateTime.now())) {
-                log.warn("Attempt to use expired refresh token: {}", request.getRefreshToken());
-                // Удалить просроченный токен из базы
-                tokenRepository.delete(refreshTokenEntity);
-                throw new IllegalArgumentException("Refresh token истек");
-            }
-
-            // 4. Найти пользователя
-            User user = userRepository.findById(refreshTokenEntity.getUserId())
+            // 1. Атомарно отозвать старый токен (если он действителен) и вставить новый — один запрос
+            String newRefreshToken = jwtUtil.generateRefreshToken();
+            LocalDateTime now = LocalDateTime.now();
+            Long userId = authMetrics.time(REFRESH, Stage.TOKEN_PERSIST, () -> tokenRepository.rotateToken(
+                            request.getRefreshToken(),
+                            idAllocator.next(RefreshToken.class),
+                            newRefreshToken,
+                            now.plus(Duration.ofMillis(refreshTokenExpiration)),
+                            now))
+                    .orElseThrow(() -> rejectRefreshToken(request.getRefreshToken(), now, sample));
+
+            // 2. Найти пользователя
+            User user = authMetrics.time(REFRESH, Stage.USER_LOOKUP, () -> userRepository.findById(userId))
                     .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден"));
 
-            // 5. Проверить, не заблокирован ли аккаунт
+            // 3. Проверить, не заблокирован ли аккаунт (ротация откатится)
             if (user.isAccountLocked()) {
                 log.warn("Attempt to refresh token for locked account: {}", user.getEmail());
                 throw new AccountLockedException("Аккаунт заблокирован");
             }
+            recentUserWrites.record(user.getId());
 
-            // 6. Генерировать новый access token
-            String newAccessToken = jwtUtil.generateAccessToken(user);
-
-            // 7. Генерировать новый refresh token
-            String newRefreshToken = jwtUtil.generateRefreshToken();
-
-            // 8. Отозвать старый refresh token
-            refreshTokenEntity.setRevoked(true);
-            tokenRepository.save(refreshTokenEntity);
-
-            // 9. Сохранить новый refresh token
-            RefreshToken newRefreshTokenEntity = RefreshToken.builder()
-                    .token(newRefreshToken)
-                    .userId(user.getId())
-                    .expiresAt(LocalDateTime.now().plus(
-                            Duration.ofMillis(refreshTokenExpiration)
-                    ))
-                    .build();
-
-            tokenRepository.save(newRefreshTokenEntity);
+            // 4. Генерировать новый access token
+            String newAccessToken = authMetrics.time(REFRESH, Stage.TOKEN_SIGN, () -> jwtUtil.generateAccessToken(user));
 
-            log.info("Token refreshed successfully for user: {}", user.getEmail());
+            log.atInfo()
+                    .addKeyValue("event", "token_refreshed")
+                    .addKeyValue("userId", user.getId())
+                    .addKeyValue("token", LogRedactor.token(request.getRefreshToken()))
+                    .log("Token refreshed");
+            authMetrics.success(sample, REFRESH);
 
-            // 10. Вернуть новые токены
+            // 5. Вернуть новые токены
             return AuthResponse.builder()
                     .accessToken(newAccessToken)
                     .refreshToken(newRefreshToken)
@@ -167,15 +244,45 @@ public class AuthServiceImpl implements AuthService {
                     .user(userMapper.toUserDto(user))
                     .build();
 
-        } catch (IllegalArgumentException | UsernameNotFoundException | AccountLockedException e) {
+        } catch (IllegalArgumentException e) {
+            // Причина уже учтена в rejectRefreshToken
             log.error("Token refresh failed: {}", e.getMessage());
             throw e;
+        } catch (UsernameNotFoundException | AccountLockedException e) {
+            log.error("Token refresh failed: {}", e.getMessage());
+            authMetrics.failure(sample, REFRESH,
+                    e instanceof UsernameNotFoundException ? Failure.NOT_FOUND : Failure.LOCKED);
+            throw e;
         } catch (Exception e) {
             log.error("Unexpected error during token refresh: {}", e.getMessage(), e);
+            authMetrics.failure(sample, REFRESH, Failure.ERROR);
             throw new RuntimeException("Ошибка обновления токена", e);
         }
     }
 
+    /**
+     * Медленный путь только для отказа: выясняем причину и удаляем просроченный токен
+     */
+    private IllegalArgumentException rejectRefreshToken(String token, LocalDateTime now, Timer.Sample sample) {
+        RefreshToken refreshTokenEntity = tokenRepository.findByToken(token).orElse(null);
+
+        if (refreshTokenEntity == null) {
+            authMetrics.failure(sample, REFRESH, Failure.INVALID_TOKEN);
+            return new IllegalArgumentException("Недействительный refresh token");
+        }
+
+        if (refreshTokenEntity.isRevoked()) {
+            log.warn("Attempt to use revoked refresh token: {}", LogRedactor.token(token));
+            authMetrics.failure(sample, REFRESH, Failure.REVOKED);
+            return new IllegalArgumentException("Refresh token отозван");
+        }
+
+        log.warn("Attempt to use expired refresh token: {}", LogRedactor.token(token));
+        authMetrics.failure(sample, REFRESH, Failure.EXPIRED);
+        tokenRepository.delete(refreshTokenEntity);
+        return new IllegalArgumentException("Refresh token истек");
+    }
+
     @Override
     @Transactional
     public void logout(String refreshToken) {
@@ -200,4 +307,71 @@ public class AuthServiceImpl implements AuthService {
             throw new RuntimeException("Ошибка при выходе", e);
         }
     }
+
+    @Override
+    @Transactional
+    public int revokeAllSessions(Long userId) {
+        int epoch = tokenEpochRegistry.bump(userId);
+        int revoked = tokenRepository.revokeAllByUserId(userId);
+        recentUserWrites.record(userId);
+        log.info("All sessions revoked for user {}: tokenEpoch={}, refreshTokens={}", userId, epoch, revoked);
+        return revoked;
+    }
+
+    @Override
+    public List<TokenIntrospectionResponse> introspect(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty() || tokens.size() > introspectionMaxBatchSize) {
+            throw new IllegalArgumentException("Передайте от 1 до " + introspectionMaxBatchSize + " токенов");
+        }
+        // Повторы в пакете (один токен на много запросов шлюза) проверяются один раз
+        Map<String, TokenIntrospectionResponse> seen = new HashMap<>();
+        List<TokenIntrospectionResponse> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(seen.computeIfAbsent(token == null ? "" : token, this::introspectToken));
+        }
+        return results;
+    }
+
+    private TokenIntrospectionResponse introspectToken(String token) {
+        if (token.isBlank()) {
+            return inactive("invalid");
+        }
+        try {
+            JwtClaims claims = jwtClaimsCache.verify(token);
+            if (tokenEpochRegistry.isRevoked(claims.getUserId(), claims.getTokenEpoch())) {
+                return fromClaims(claims, false, "revoked");
+            }
+            return fromClaims(claims, true, "active");
+        } catch (ExpiredJwtException e) {
+            // Подпись уже проверена, истек только срок: claims отдаем, но active = false
+            return fromClaims(JwtClaims.from(e.getClaims()), false, "expired");
+        } catch (JwtException | IllegalArgumentException e) {
+            return inactive("invalid");
+        }
+    }
+
+    private static TokenIntrospectionResponse fromClaims(JwtClaims claims, boolean active, String status) {
+        return TokenIntrospectionResponse.builder()
+                .active(active)
+                .status(status)
+                .tokenType("Bearer")
+                .sub(claims.getUsername())
+                .username(claims.getUsername())
+                .userId(claims.getUserId())
+                .role(claims.getRole())
+                .iat(epochSecond(claims.getIssuedAt()))
+                .exp(epochSecond(claims.getExpiresAt()))
+                .build();
+    }
+
+    private static TokenIntrospectionResponse inactive(String status) {
+        return TokenIntrospectionResponse.builder()
+                .active(false)
+                .status(status)
+                .build();
+    }
+
+    private static Long epochSecond(Instant instant) {
+        return instant == null ? null : instant.getEpochSecond();
+    }
 }
@@ -0,0 +1,231 @@
+package com.example.hoteluserservce.service.impl;
+
+import com.example.hoteluserservce.dto.UserExportFilter;
+import com.example.hoteluserservce.enums.UserDataFormat;
+import com.example.hoteluserservce.service.UserExportService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковый экспорт пользователей.
+ *
+ * Строки читаются курсором Postgres (fetch-size строк за раз, внутри read-only транзакции)
+ * и сразу пишутся в ответ — без сущностей JPA и без накопления в памяти,
+ * поэтому память не зависит от числа пользователей. Буфер сбрасывается клиенту каждые fetch-size строк.
+ */
+@Service
+@Slf4j
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final String[] COLUMNS = {
+            "id", "username", "email", "firstName", "lastName", "phone",
+            "role", "emailVerified", "accountLocked", "createdAt", "lastLogin"
+    };
+
+    private static final String SELECT_SQL = """
+            SELECT id, username, email, first_name, last_name, phone,
+                   role, email_verified, account_locked, created_at, last_login
+            FROM users
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int fetchSize;
+    private final Counter exportedRows;
+
+    public UserExportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${users.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.exportedRows = Counter.builder("users.export.rows")
+                .register(meterRegistry);
+    }
+
+    @Override
+    // Курсор с fetch size работает только вне autocommit
+    @Transactional(readOnly = true)
+    public long exportUsers(UserExportFilter filter, UserDataFormat format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        List<Object> params = new ArrayList<>();
+        String sql = SELECT_SQL + where(filter, params) + " ORDER BY id";
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == UserDataFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long[] count = {0};
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                return statement;
+            }, rs -> {
+                try {
+                    rowWriter.write(rs);
+                    if (++count[0] % fetchSize == 0) {
+                        rowWriter.flush();
+                        exportedRows.increment(fetchSize);
+                    }
+                } catch (IOException e) {
+                    // Клиент отключился: прерываем запрос, курсор закроется вместе с транзакцией
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("User export aborted after {} rows: {}", count[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        rowWriter.finish();
+        exportedRows.increment(count[0] % fetchSize);
+        log.info("User export finished: format={}, rows={}, took {} ms",
+                format, count[0], System.currentTimeMillis() - started);
+        return count[0];
+    }
+
+    private static String where(UserExportFilter filter, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.getRole() != null) {
+            conditions.add("role = ?");
+            params.add(filter.getRole().name());
+        }
+        if (filter.getEmailVerified() != null) {
+            conditions.add("email_verified = ?");
+            params.add(filter.getEmailVerified());
+        }
+        if (filter.getAccountLocked() != null) {
+            conditions.add("account_locked = ?");
+            params.add(filter.getAccountLocked());
+        }
+        if (filter.getCreatedSince() != null) {
+            conditions.add("created_at >= ?");
+            params.add(Timestamp.valueOf(filter.getCreatedSince()));
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator json;
+        private boolean empty = true;
+
+        private NdjsonRowWriter(Writer writer) throws IOException {
+            // Один генератор на весь поток, объекты верхнего уровня разделяются переводом строки
+            this.json = jsonFactory.createGenerator(writer)
+                    .setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            empty = false;
+            json.writeStartObject();
+            json.writeNumberField(COLUMNS[0], rs.getLong(1));
+            for (int i = 2; i <= 7; i++) {
+                json.writeStringField(COLUMNS[i - 1], rs.getString(i));
+            }
+            json.writeBooleanField(COLUMNS[7], rs.getBoolean(8));
+            json.writeBooleanField(COLUMNS[8], rs.getBoolean(9));
+            json.writeStringField(COLUMNS[9], timestamp(rs, 10));
+            json.writeStringField(COLUMNS[10], timestamp(rs, 11));
+            json.writeEndObject();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!empty) {
+                json.writeRaw('\n');
+            }
+            json.flush();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            for (int i = 2; i <= 7; i++) {
+                writer.write(',');
+                writer.write(escape(rs.getString(i)));
+            }
+            writer.write(',');
+            writer.write(Boolean.toString(rs.getBoolean(8)));
+            writer.write(',');
+            writer.write(Boolean.toString(rs.getBoolean(9)));
+            writer.write(',');
+            writer.write(escape(timestamp(rs, 10)));
+            writer.write(',');
+            writer.write(escape(timestamp(rs, 11)));
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static String timestamp(ResultSet rs, int column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value == null ? null : value.toLocalDateTime().toString();
+    }
+}
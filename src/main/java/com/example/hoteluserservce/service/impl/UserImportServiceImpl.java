@@ -0,0 +1,387 @@
+package com.example.hoteluserservce.service.impl;
+
+import com.example.hoteluserservce.dto.ImportReport;
+import com.example.hoteluserservce.dto.user.ImportUserRow;
+import com.example.hoteluserservce.enums.UserDataFormat;
+import com.example.hoteluserservce.enums.UserRole;
+import com.example.hoteluserservce.model.User;
+import com.example.hoteluserservce.service.UserImportService;
+import com.example.hoteluserservce.util.PooledIdAllocator;
+import com.example.hoteluserservce.util.RegisterRequestValidator;
+import com.example.hoteluserservce.util.UserAvailabilityIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Массовый импорт пользователей.
+ *
+ * Тело запроса читается построчно, в памяти только текущая порция из batch-size строк.
+ * Пароли порции хешируются параллельно в отдельном пуле (не в пуле логина),
+ * затем порция вставляется одним JDBC batch в своей транзакции.
+ * Дубликаты email (без учета регистра, как при регистрации) не вставляются и попадают в отчет.
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO users (id, username, email, password, first_name, last_name, phone,
+                               role, email_verified, account_locked, created_at, updated_at)
+            SELECT ?, ?, ?, ?, ?, ?, ?, ?, false, false, ?, ?
+            WHERE NOT EXISTS (SELECT 1 FROM users WHERE lower(email) = lower(?))
+            ON CONFLICT DO NOTHING
+            """;
+
+    // $2a$10$ + 53 символа соли и хеша, опционально с префиксом {bcrypt}
+    private static final Pattern BCRYPT_HASH =
+            Pattern.compile("^(\\{bcrypt})?\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final RegisterRequestValidator registerRequestValidator;
+    private final UserAvailabilityIndex userAvailabilityIndex;
+    private final PooledIdAllocator idAllocator;
+    private final ObjectReader rowReader;
+    private final ExecutorService hashingPool;
+    private final int batchSize;
+    private final int maxErrors;
+
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public UserImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 PasswordEncoder passwordEncoder,
+                                 RegisterRequestValidator registerRequestValidator,
+                                 UserAvailabilityIndex userAvailabilityIndex,
+                                 PooledIdAllocator idAllocator,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${users.import.batch-size:500}") int batchSize,
+                                 @Value("${users.import.hashing-threads:0}") int hashingThreads,
+                                 @Value("${users.import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.registerRequestValidator = registerRequestValidator;
+        this.userAvailabilityIndex = userAvailabilityIndex;
+        this.idAllocator = idAllocator;
+        this.rowReader = objectMapper.readerFor(ImportUserRow.class);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.importedRows = Counter.builder("users.import.rows")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("users.import.rows")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ImportReport importUsers(InputStream input, UserDataFormat format) throws IOException {
+        long started = System.currentTimeMillis();
+        Progress progress = new Progress();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> csvColumns = null;
+        List<PendingRow> chunk = new ArrayList<>(batchSize);
+
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            if (format == UserDataFormat.CSV && csvColumns == null) {
+                csvColumns = parseCsvHeader(line);
+                continue;
+            }
+
+            progress.totalRows++;
+            try {
+                ImportUserRow row = format == UserDataFormat.CSV
+                        ? parseCsvRow(line, csvColumns)
+                        : rowReader.readValue(line);
+                chunk.add(new PendingRow(lineNumber, row));
+            } catch (IOException | IllegalArgumentException e) {
+                progress.fail(lineNumber, null, "Не удалось разобрать строку: " + e.getMessage());
+                continue;
+            }
+
+            if (chunk.size() == batchSize) {
+                processChunk(chunk, progress);
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, progress);
+        }
+
+        long duration = System.currentTimeMillis() - started;
+        log.info("User import finished: format={}, rows={}, imported={}, failed={}, took {} ms",
+                format, progress.totalRows, progress.imported, progress.failed, duration);
+
+        return ImportReport.builder()
+                .totalRows(progress.totalRows)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .durationMs(duration)
+                .errors(progress.errors)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .build();
+    }
+
+    private void processChunk(List<PendingRow> chunk, Progress progress) {
+        // 1. Проверка по тем же правилам, что и регистрация
+        List<PendingRow> valid = new ArrayList<>(chunk.size());
+        for (PendingRow pending : chunk) {
+            try {
+                validate(pending.row);
+                valid.add(pending);
+            } catch (IllegalArgumentException e) {
+                progress.fail(pending.line, pending.row.getEmail(), e.getMessage());
+            }
+        }
+
+        // 2. Хеширование паролей параллельно, готовые BCrypt-хеши — как есть
+        List<Future<String>> hashes = new ArrayList<>(valid.size());
+        for (PendingRow pending : valid) {
+            String preHashed = pending.row.getPasswordHash();
+            hashes.add(preHashed != null
+                    ? CompletableFuture.completedFuture(
+                            preHashed.startsWith(BCRYPT_PREFIX) ? preHashed : BCRYPT_PREFIX + preHashed)
+                    : hashingPool.submit(() -> passwordEncoder.encode(pending.row.getPassword())));
+        }
+
+        List<PendingRow> hashed = new ArrayList<>(valid.size());
+        for (int i = 0; i < valid.size(); i++) {
+            PendingRow pending = valid.get(i);
+            try {
+                pending.encodedPassword = hashes.get(i).get();
+                hashed.add(pending);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Импорт прерван", e);
+            } catch (ExecutionException e) {
+                progress.fail(pending.line, pending.row.getEmail(), "Ошибка хеширования пароля");
+            }
+        }
+
+        // 3. Вставка одним batch; если batch упал целиком — построчно, чтобы найти виноватую строку
+        if (hashed.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int[][] counts = transactionTemplate.execute(status -> {
+                // id блоками из users_id_seq, как у persist: DEFAULT nextval брал бы блок на строку
+                for (PendingRow pending : hashed) {
+                    pending.id = idAllocator.next(User.class);
+                }
+                return jdbcTemplate.batchUpdate(INSERT_SQL, hashed, hashed.size(),
+                        (ps, pending) -> bind(ps, pending, now));
+            });
+            for (int i = 0; i < hashed.size(); i++) {
+                recordInsert(hashed.get(i), counts[0][i], progress);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Import batch failed, retrying {} rows one by one: {}", hashed.size(), e.getMessage());
+            for (PendingRow pending : hashed) {
+                try {
+                    int count = jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, pending, now));
+                    recordInsert(pending, count, progress);
+                } catch (DataAccessException rowError) {
+                    progress.fail(pending.line, pending.row.getEmail(), "Ошибка записи в БД");
+                }
+            }
+        }
+    }
+
+    private void validate(ImportUserRow row) {
+        boolean preHashed = row.getPasswordHash() != null && !row.getPasswordHash().isBlank();
+        if (!preHashed) {
+            row.setPasswordHash(null);
+        }
+        registerRequestValidator.validate(row.toRegisterRequest(), !preHashed);
+
+        if (preHashed && !BCRYPT_HASH.matcher(row.getPasswordHash()).matches()) {
+            throw new IllegalArgumentException("passwordHash должен быть BCrypt-хешем");
+        }
+        for (String value : new String[]{row.getEmail(), row.getFirstName(), row.getLastName(), row.getPhone()}) {
+            if (value != null && value.length() > MAX_COLUMN_LENGTH) {
+                throw new IllegalArgumentException("Значение длиннее " + MAX_COLUMN_LENGTH + " символов");
+            }
+        }
+    }
+
+    private void recordInsert(PendingRow pending, int count, Progress progress) {
+        if (count == 0) {
+            progress.fail(pending.line, pending.row.getEmail(), "Пользователь с таким email уже существует");
+            return;
+        }
+        progress.imported++;
+        importedRows.increment();
+        userAvailabilityIndex.add(pending.row.getUsername(), pending.row.getEmail());
+    }
+
+    private static void bind(PreparedStatement ps, PendingRow pending, LocalDateTime now) throws SQLException {
+        ImportUserRow row = pending.row;
+        Timestamp timestamp = Timestamp.valueOf(now);
+        ps.setLong(1, pending.id);
+        ps.setString(2, row.getUsername());
+        ps.setString(3, row.getEmail());
+        ps.setString(4, pending.encodedPassword);
+        ps.setString(5, row.getFirstName());
+        ps.setString(6, row.getLastName());
+        ps.setString(7, row.getPhone());
+        ps.setString(8, UserRole.USER.name());
+        ps.setTimestamp(9, timestamp);
+        ps.setTimestamp(10, timestamp);
+        ps.setString(11, row.getEmail());
+    }
+
+    // Заголовок: username,email,password,passwordHash,firstName,lastName,phone (порядок любой, snake_case тоже)
+    private static Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("email") || !columns.containsKey("username")) {
+            throw new IllegalArgumentException("В заголовке CSV нужны колонки username и email");
+        }
+        return columns;
+    }
+
+    private static ImportUserRow parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        ImportUserRow row = new ImportUserRow();
+        row.setUsername(column(values, columns, "username"));
+        row.setEmail(column(values, columns, "email"));
+        row.setPassword(column(values, columns, "password"));
+        row.setPasswordHash(column(values, columns, "passwordhash"));
+        row.setFirstName(column(values, columns, "firstname"));
+        row.setLastName(column(values, columns, "lastname"));
+        row.setPhone(column(values, columns, "phone"));
+        return row;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 в пределах одной строки: кавычки и "" внутри кавычек, без переносов в значениях
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    private static final class PendingRow {
+        private final long line;
+        private final ImportUserRow row;
+        private String encodedPassword;
+        private long id;
+
+        private PendingRow(long line, ImportUserRow row) {
+            this.line = line;
+            this.row = row;
+        }
+    }
+
+    private final class Progress {
+        private long totalRows;
+        private long imported;
+        private long failed;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        private void fail(long line, String email, String message) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportReport.RowError(line, email, message));
+            }
+        }
+    }
+}
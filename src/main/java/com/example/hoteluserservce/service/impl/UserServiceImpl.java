@@ -1,10 +1,13 @@
 package com.example.hoteluserservce.service.impl;
 
+import com.example.hoteluserservce.dto.user.AvailabilityResponse;
+import com.example.hoteluserservce.dto.user.BatchUserLookupResponse;
 import com.example.hoteluserservce.dto.user.RegisterRequest;
 import com.example.hoteluserservce.dto.user.UpdateUserDto;
 import com.example.hoteluserservce.dto.user.UserDto;
 import com.example.hoteluserservce.enums.UserRole;
 import com.example.hoteluserservce.exception.EmailAlreadyExistsException;
+import com.example.hoteluserservce.exception.PasswordHashingOverloadedException;
 import com.example.hoteluserservce.exception.UserAlreadyExistsException;
 import com.example.hoteluserservce.exception.UserNotFoundException;
 import com.example.hoteluserservce.mapper.UserMapper;
@@ -12,13 +15,33 @@ import com.example.hoteluserservce.model.User;
 import com.example.hoteluserservce.repository.RefreshTokenRepository;
 import com.example.hoteluserservce.repository.UserRepository;
 import com.example.hoteluserservce.service.UserService;
+import com.example.hoteluserservce.util.AuthMetrics;
+import com.example.hoteluserservce.util.AuthMetrics.Failure;
+import com.example.hoteluserservce.util.AuthMetrics.Stage;
 import com.example.hoteluserservce.util.JwtUtil;
+import com.example.hoteluserservce.util.PasswordHashingExecutor;
+import com.example.hoteluserservce.util.RecentUserWrites;
+import com.example.hoteluserservce.util.RegisterRequestValidator;
+import com.example.hoteluserservce.util.UserAvailabilityIndex;
+import com.example.hoteluserservce.util.UserLookupCache;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.example.hoteluserservce.util.AuthMetrics.Flow.REGISTER;
 
 @Service
 @Slf4j
@@ -26,33 +49,35 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final UserMapper userMapper;
     private final RefreshTokenRepository tokenRepository;
     private final JwtUtil jwtUtil;
+    private final UserLookupCache userLookupCache;
+    private final UserAvailabilityIndex userAvailabilityIndex;
+    private final RegisterRequestValidator registerRequestValidator;
+    private final AuthMetrics authMetrics;
+    private final RecentUserWrites recentUserWrites;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${users.batch-lookup.max-size:500}")
+    private int batchLookupMaxSize;
 
 
     @Override
-    @Transactional
     public UserDto registerUser(RegisterRequest request) {
         log.info("Attempting to register new user with email: {}", request.getEmail());
+        Timer.Sample sample = authMetrics.start();
 
         try {
             // 1. Валидация входных данных
-            validateRegisterRequest(request);
-
-            // 2. Проверить, не существует ли пользователь с таким email
-            if (userRepository.existsByEmail(request.getEmail())) {
-                log.warn("Registration failed: email already exists - {}", request.getEmail());
-                throw new UserAlreadyExistsException("Пользователь с таким email уже существует");
-            }
-
-
+            registerRequestValidator.validate(request, true);
 
-            // 4. Хешировать пароль
-            String hashedPassword = passwordEncoder.encode(request.getPassword());
+            // 2. Хешировать пароль до транзакции: ожидание пула хеширования не держит соединение с БД
+            String hashedPassword = authMetrics.time(REGISTER, Stage.PASSWORD_HASH,
+                    () -> passwordHashingExecutor.encode(request.getPassword()));
 
-            // 5. Создать нового пользователя
+            // 3. Создать нового пользователя
             User newUser = User.builder()
                     .username(request.getUsername())
                     .email(request.getEmail())
@@ -65,35 +90,56 @@ public class UserServiceImpl implements UserService {
                     .accountLocked(false) // По умолчанию не заблокирован
                     .build();
 
-            // 6. Сохранить пользователя в базе данных
-            User savedUser = userRepository.save(newUser);
+            // 4. Короткая транзакция: проверка email и вставка
+            User savedUser = transactionTemplate.execute(status -> {
+                // Всегда БД, не фильтр: email мог зарегистрировать другой инстанс
+                if (authMetrics.time(REGISTER, Stage.USER_LOOKUP, () -> userRepository.existsByEmail(request.getEmail()))) {
+                    log.warn("Registration failed: email already exists - {}", request.getEmail());
+                    throw new UserAlreadyExistsException("Пользователь с таким email уже существует");
+                }
+
+                User saved = authMetrics.time(REGISTER, Stage.USER_UPDATE, () -> userRepository.save(newUser));
+                recentUserWrites.record(saved.getId());
+                return saved;
+            });
+            userLookupCache.evict(savedUser.getId(), savedUser.getUsername(), savedUser.getEmail());
+            userAvailabilityIndex.add(savedUser.getUsername(), savedUser.getEmail());
 
             log.info("User registered successfully with ID: {} and email: {}",
                     savedUser.getId(), savedUser.getEmail());
+            authMetrics.success(sample, REGISTER);
 
-            // 7. Преобразовать в DTO и вернуть (без пароля!)
+            // 5. Преобразовать в DTO и вернуть (без пароля!)
             return userMapper.toUserDto(savedUser);
 
         } catch (UserAlreadyExistsException e) {
             log.error("Registration failed for email {}: {}", request.getEmail(), e.getMessage());
+            authMetrics.failure(sample, REGISTER, Failure.ALREADY_EXISTS);
+            throw e;
+        } catch (PasswordHashingOverloadedException e) {
+            authMetrics.failure(sample, REGISTER, Failure.OVERLOADED);
             throw e;
         } catch (Exception e) {
             log.error("Unexpected error during registration for email {}: {}",
                     request.getEmail(), e.getMessage(), e);
+            authMetrics.failure(sample, REGISTER,
+                    e instanceof IllegalArgumentException ? Failure.INVALID_INPUT : Failure.ERROR);
             throw new RuntimeException("Ошибка регистрации пользователя", e);
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long userId) {
         log.info("Getting user by ID: {}", userId);
 
         try {
-            User user = userRepository.findById(userId)
+            UserDto user = userLookupCache.getById(userId,
+                            userRepository::findDtoById)
                     .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден"));
 
             log.info("User found: {}", user.getEmail());
-            return userMapper.toUserDto(user);
+            return user;
 
         } catch (UsernameNotFoundException e) {
             log.error("User not found with ID: {}", userId);
@@ -105,15 +151,17 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto getUserByUsername(String username) {
         log.info("Getting user by username: {}", username);
 
         try {
-            User user = userRepository.findByUsername(username)
+            UserDto user = userLookupCache.getByUsername(username,
+                            () -> userRepository.findDtoByUsername(username))
                     .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден"));
 
             log.info("User found: {} ({})", user.getUsername(), user.getEmail());
-            return userMapper.toUserDto(user);
+            return user;
 
         } catch (UsernameNotFoundException e) {
             log.error("User not found with username: {}", username);
@@ -124,15 +172,35 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public UserDto getUserByEmail(String email) {
+        log.info("Getting user by email: {}", email);
+
+        try {
+            return userLookupCache.getByEmail(email,
+                            () -> userRepository.findDtoByEmail(email))
+                    .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден"));
+
+        } catch (UsernameNotFoundException e) {
+            log.error("User not found with email: {}", email);
+            throw e;
+        } catch (Exception e) {
+            log.error("Unexpected error getting user {}: {}", email, e.getMessage(), e);
+            throw new RuntimeException("Ошибка получения пользователя", e);
+        }
+    }
+
     @Override
     @Transactional
     public UserDto updateUserByUsername(String username, UpdateUserDto updateDto) {
         User existingUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
+        String oldEmail = existingUser.getEmail();
 
         // Проверяем только email на уникальность
         if (updateDto.getEmail() != null &&
-                !updateDto.getEmail().equals(existingUser.getEmail())) {
+                !updateDto.getEmail().equalsIgnoreCase(existingUser.getEmail())) {
 
             if (userRepository.existsByEmail(updateDto.getEmail())) {
                 throw new EmailAlreadyExistsException("Email already exists: " + updateDto.getEmail());
@@ -144,38 +212,70 @@ public class UserServiceImpl implements UserService {
         userMapper.updateUserFromDto(existingUser, updateDto);
 
         User updatedUser = userRepository.save(existingUser);
+
+        // Сбрасываем и старые, и новые ключи (username/email могли измениться)
+        userLookupCache.evict(updatedUser.getId(),
+                username, oldEmail, updatedUser.getUsername(), updatedUser.getEmail());
+        userAvailabilityIndex.add(updatedUser.getUsername(), updatedUser.getEmail());
+        recentUserWrites.record(updatedUser.getId());
+
         return userMapper.toUserDto(updatedUser);
     }
 
-    private void validateRegisterRequest(RegisterRequest request) {
-        if (request == null) {
-            throw new IllegalArgumentException("Запрос на регистрацию не может быть пустым");
-        }
-
-        if (request.getEmail() == null || request.getEmail().trim().isEmpty()) {
-            throw new IllegalArgumentException("Email обязателен для заполнения");
+    /**
+     * Без транзакции на весь метод: ответ фильтра "свободно" не берет соединение из пула,
+     * запрос existsBy* на проверку в БД выполняется в своей короткой readOnly-транзакции репозитория
+     */
+    @Override
+    public AvailabilityResponse checkAvailability(String email, String username) {
+        boolean hasEmail = email != null && !email.isBlank();
+        boolean hasUsername = username != null && !username.isBlank();
+        if (!hasEmail && !hasUsername) {
+            throw new IllegalArgumentException("Укажите email или username");
         }
 
-        if (request.getUsername() == null || request.getUsername().trim().isEmpty()) {
-            throw new IllegalArgumentException("Имя пользователя обязательно для заполнения");
-        }
+        // В БД идем, только если фильтр не смог сразу ответить "свободно"
+        return AvailabilityResponse.builder()
+                .emailAvailable(hasEmail ? !userAvailabilityIndex.isEmailTaken(email.trim(),
+                        () -> userRepository.existsByEmail(email.trim())) : null)
+                .usernameAvailable(hasUsername ? !userAvailabilityIndex.isUsernameTaken(username.trim(),
+                        () -> userRepository.existsByUsername(username.trim())) : null)
+                .build();
+    }
 
-        if (request.getPassword() == null || request.getPassword().length() < 6) {
-            throw new IllegalArgumentException("Пароль должен содержать минимум 6 символов");
+    @Override
+    @Transactional(readOnly = true)
+    public BatchUserLookupResponse getUsersBatch(Collection<Long> ids, Collection<String> usernames) {
+        Set<Long> idSet = distinct(ids);
+        Set<String> usernameSet = distinct(usernames);
+        if (idSet.size() + usernameSet.size() > batchLookupMaxSize) {
+            throw new IllegalArgumentException("Не более " + batchLookupMaxSize + " id и username за запрос");
         }
 
-        // Проверка на валидность email
-        if (!isValidEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Неверный формат email");
-        }
+        log.info("Batch user lookup: ids={}, usernames={}", idSet.size(), usernameSet.size());
 
-        // Проверка длины username
-        if (request.getUsername().length() < 3 || request.getUsername().length() > 50) {
-            throw new IllegalArgumentException("Имя пользователя должно быть от 3 до 50 символов");
+        // Из кэша — что есть, остальное одним IN-запросом на каждый вид ключа
+        Map<Long, UserDto> users = new LinkedHashMap<>();
+        if (!idSet.isEmpty()) {
+            users.putAll(userLookupCache.getAllById(idSet, userRepository::findDtosByIdIn));
         }
+        Map<String, UserDto> byUsername = usernameSet.isEmpty()
+                ? Map.of()
+                : userLookupCache.getAllByUsername(usernameSet, userRepository::findDtosByUsernameIn);
+        byUsername.values().forEach(user -> users.putIfAbsent(user.getId(), user));
+
+        return BatchUserLookupResponse.builder()
+                .users(users)
+                .missingIds(idSet.stream().filter(id -> !users.containsKey(id)).toList())
+                .missingUsernames(usernameSet.stream().filter(name -> !byUsername.containsKey(name)).toList())
+                .build();
     }
 
-    private boolean isValidEmail(String email) {
-        return email != null && email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    private static <T> Set<T> distinct(Collection<T> values) {
+        Set<T> set = new LinkedHashSet<>();
+        if (values != null) {
+            values.stream().filter(Objects::nonNull).forEach(set::add);
+        }
+        return set;
     }
 }
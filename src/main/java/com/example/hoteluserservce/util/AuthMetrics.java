@@ -0,0 +1,94 @@
+package com.example.hoteluserservce.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Метрики входа, обновления токена и регистрации.
+ *
+ * auth.stage{flow, stage} — время каждого этапа (поиск пользователя, BCrypt, подпись токена, запись в БД),
+ * auth.flow{flow, outcome} — время всего запроса, auth.failures{flow, reason} — отказы по причинам.
+ * У таймеров публикуются гистограммы, перцентили считаются в Prometheus.
+ */
+@Component
+public class AuthMetrics {
+
+    public enum Flow {
+        LOGIN, REFRESH, REGISTER
+    }
+
+    public enum Stage {
+        USER_LOOKUP, PASSWORD_VERIFY, PASSWORD_HASH, TOKEN_SIGN, TOKEN_PERSIST, USER_UPDATE
+    }
+
+    public enum Failure {
+        NOT_FOUND, BAD_PASSWORD, LOCKED, REVOKED, EXPIRED, INVALID_TOKEN, ALREADY_EXISTS, INVALID_INPUT,
+        OVERLOADED, RATE_LIMITED, ERROR
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> flowTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failureCounters = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(Flow flow, Stage stage, Supplier<T> action) {
+        return stageTimer(flow, stage).record(action);
+    }
+
+    public void time(Flow flow, Stage stage, Runnable action) {
+        stageTimer(flow, stage).record(action);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void success(Timer.Sample sample, Flow flow) {
+        sample.stop(flowTimer(flow, "success"));
+    }
+
+    /**
+     * Отказ: считается в auth.failures и завершает таймер запроса с outcome=failure
+     */
+    public void failure(Timer.Sample sample, Flow flow, Failure reason) {
+        sample.stop(flowTimer(flow, "failure"));
+        failureCounters.computeIfAbsent(flow + ":" + reason, key -> Counter.builder("auth.failures")
+                        .tag("flow", tag(flow))
+                        .tag("reason", tag(reason))
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private Timer stageTimer(Flow flow, Stage stage) {
+        return stageTimers.computeIfAbsent(flow + ":" + stage, key -> Timer.builder("auth.stage")
+                .description("Время этапа аутентификации")
+                .tag("flow", tag(flow))
+                .tag("stage", tag(stage))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Timer flowTimer(Flow flow, String outcome) {
+        return flowTimers.computeIfAbsent(flow + ":" + outcome, key -> Timer.builder("auth.flow")
+                .description("Время запроса аутентификации целиком")
+                .tag("flow", tag(flow))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.hoteluserservce.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Потокобезопасный Bloom filter для строк.
+ *
+ * "Нет" — точно нет, "может быть" — нужно проверить в источнике.
+ * Удаление не поддерживается, устаревшие значения убирает только полная пересборка.
+ * Индексы бит — двойное хеширование (Kirsch–Mitzenmacher) от одного 64-битного хеша.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+    private final long expectedInsertions;
+    private final AtomicLong bitCount = new AtomicLong();
+
+    private BloomFilter(long numBits, int numHashes, long expectedInsertions) {
+        int wordCount = Math.toIntExact((numBits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.numBits = (long) wordCount * 64;
+        this.numHashes = numHashes;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Фильтр, рассчитанный на expectedInsertions значений с долей ложных срабатываний fpp
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("expectedInsertions > 0 и 0 < fpp < 1");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bits, hashes, expectedInsertions);
+    }
+
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            setBit(Long.remainderUnsigned(hash1 + i * hash2, numBits));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Long.remainderUnsigned(hash1 + i * hash2, numBits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ожидаемая доля ложных срабатываний по фактической заполненности битового массива
+     */
+    public double expectedFpp() {
+        return Math.pow((double) bitCount.get() / numBits, numHashes);
+    }
+
+    public long memoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    public long bitSize() {
+        return numBits;
+    }
+
+    public int hashCount() {
+        return numHashes;
+    }
+
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+        bitCount.incrementAndGet();
+    }
+
+    // FNV-1a по символам и финальное перемешивание из MurmurHash3
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.hoteluserservce.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Делегирующий энкодер с префиксом алгоритма ({bcrypt} / {argon2}),
+ * стоимость которого подбирается при старте под целевую задержку (p50).
+ *
+ * Хеши без префикса (созданные до появления энкодера) проверяются как BCrypt.
+ * {@link #upgradeEncoding(String)} возвращает true, если алгоритм или параметры
+ * сохраненного хеша не совпадают с текущими — в обе стороны, а не только на усиление.
+ * BCrypt-хеш без префикса с текущей стоимостью не перехешируется.
+ */
+@Slf4j
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final int BCRYPT_MIN_STRENGTH = 10;
+    private static final int ARGON2_MIN_ITERATIONS = 2;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final String CALIBRATION_PASSWORD = "calibration-Pa55word!";
+
+    private final String algorithm;
+    private final int bcryptStrength;
+    private final String argon2Parameters;
+    private final DelegatingPasswordEncoder delegate;
+
+    private CalibratedPasswordEncoder(String algorithm, int bcryptStrength,
+                                      int argon2MemoryKb, int argon2Parallelism, int argon2Iterations) {
+        this.algorithm = algorithm;
+        this.bcryptStrength = bcryptStrength;
+        this.argon2Parameters = "m=" + argon2MemoryKb + ",t=" + argon2Iterations + ",p=" + argon2Parallelism;
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Argon2PasswordEncoder argon2 = new Argon2PasswordEncoder(
+                ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, argon2Parallelism, argon2MemoryKb, argon2Iterations);
+
+        this.delegate = new DelegatingPasswordEncoder(algorithm, Map.of(BCRYPT, bcrypt, ARGON2, argon2));
+        this.delegate.setDefaultPasswordEncoderForMatches(bcrypt);
+    }
+
+    /**
+     * Энкодер с заданными параметрами, без калибровки
+     */
+    public static CalibratedPasswordEncoder fixed(String algorithm, int bcryptStrength,
+                                                  int argon2MemoryKb, int argon2Parallelism, int argon2Iterations) {
+        if (BCRYPT.equals(checkAlgorithm(algorithm))) {
+            log.info("Password encoder: bcrypt strength={}", bcryptStrength);
+        } else {
+            log.info("Password encoder: argon2 m={}KB t={} p={}", argon2MemoryKb, argon2Iterations, argon2Parallelism);
+        }
+        return new CalibratedPasswordEncoder(algorithm, bcryptStrength,
+                argon2MemoryKb, argon2Parallelism, argon2Iterations);
+    }
+
+    /**
+     * Подбирает максимальную стоимость, при которой медиана encode не превышает targetLatency.
+     * Для BCrypt меняется strength, для Argon2 — число итераций при фиксированной памяти.
+     */
+    public static CalibratedPasswordEncoder calibrate(String algorithm, Duration targetLatency, int maxCost,
+                                                      int argon2MemoryKb, int argon2Parallelism, int samples) {
+        checkAlgorithm(algorithm);
+        long targetNanos = targetLatency.toNanos();
+
+        if (BCRYPT.equals(algorithm)) {
+            int chosen = BCRYPT_MIN_STRENGTH;
+            for (int strength = BCRYPT_MIN_STRENGTH; strength <= maxCost; strength++) {
+                long p50 = medianEncodeNanos(new BCryptPasswordEncoder(strength), samples);
+                log.info("Password encoder calibration: bcrypt strength={} p50={}ms", strength, p50 / 1_000_000);
+                if (p50 > targetNanos) {
+                    break;
+                }
+                chosen = strength;
+            }
+            log.info("Password encoder calibrated: bcrypt strength={} (target {}ms)", chosen, targetLatency.toMillis());
+            return new CalibratedPasswordEncoder(BCRYPT, chosen, argon2MemoryKb, argon2Parallelism, ARGON2_MIN_ITERATIONS);
+        }
+
+        int chosen = ARGON2_MIN_ITERATIONS;
+        for (int iterations = ARGON2_MIN_ITERATIONS; iterations <= maxCost; iterations++) {
+            Argon2PasswordEncoder argon2 = new Argon2PasswordEncoder(
+                    ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, argon2Parallelism, argon2MemoryKb, iterations);
+            long p50 = medianEncodeNanos(argon2, samples);
+            log.info("Password encoder calibration: argon2 m={}KB t={} p50={}ms",
+                    argon2MemoryKb, iterations, p50 / 1_000_000);
+            if (p50 > targetNanos) {
+                break;
+            }
+            chosen = iterations;
+        }
+        log.info("Password encoder calibrated: argon2 m={}KB t={} p={} (target {}ms)",
+                argon2MemoryKb, chosen, argon2Parallelism, targetLatency.toMillis());
+        return new CalibratedPasswordEncoder(ARGON2, BCRYPT_MIN_STRENGTH, argon2MemoryKb, argon2Parallelism, chosen);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+
+        String prefix = "{" + algorithm + "}";
+        String hash;
+        if (encodedPassword.startsWith(prefix)) {
+            hash = encodedPassword.substring(prefix.length());
+        } else if (BCRYPT.equals(algorithm) && !encodedPassword.startsWith("{")) {
+            // Хеш без префикса — тот же BCrypt, перехешировать только при другой стоимости
+            hash = encodedPassword;
+        } else {
+            return true;
+        }
+
+        if (BCRYPT.equals(algorithm)) {
+            // $2a$10$...
+            return hash.length() < 7 || !hash.substring(4, 6).equals(String.format("%02d", bcryptStrength));
+        }
+
+        // $argon2id$v=19$m=19456,t=2,p=1$salt$hash
+        String[] parts = hash.split("\\$");
+        return parts.length < 4 || !parts[3].equals(argon2Parameters);
+    }
+
+    private static long medianEncodeNanos(PasswordEncoder encoder, int samples) {
+        encoder.encode(CALIBRATION_PASSWORD); // прогрев
+        long[] timings = new long[Math.max(1, samples)];
+        for (int i = 0; i < timings.length; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            timings[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(timings);
+        return timings[timings.length / 2];
+    }
+
+    private static String checkAlgorithm(String algorithm) {
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalArgumentException("Неизвестный алгоритм хеширования паролей: " + algorithm);
+        }
+        return algorithm;
+    }
+}
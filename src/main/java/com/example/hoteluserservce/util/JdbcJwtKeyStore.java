@@ -0,0 +1,142 @@
+package com.example.hoteluserservce.util;
+
+import com.example.hoteluserservce.enums.JwtSigningAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Ключи подписи в таблице jwt_signing_keys (V6).
+ *
+ * Закрытый ключ хранится в PKCS#8, зашифрованный AES-GCM ключом, производным от jwt.secret:
+ * секрет и так общий для всех инстансов, а дамп БД без него ключи не раскрывает.
+ * Ротацию выполняет один инстанс — под advisory-блокировкой транзакции.
+ */
+@Component
+public class JdbcJwtKeyStore implements JwtKeyStore {
+
+    private static final String SELECT_SQL = "SELECT kid, public_key, private_key, activates_at, retires_at "
+            + "FROM jwt_signing_keys WHERE algorithm = ? AND (retires_at IS NULL OR retires_at > ?) "
+            + "ORDER BY activates_at";
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('jwt_signing_keys'))";
+
+    private static final String FRESH_SQL = "SELECT count(*) FROM jwt_signing_keys "
+            + "WHERE algorithm = ? AND retires_at IS NULL AND activates_at > ?";
+
+    private static final String RETIRE_SQL = "UPDATE jwt_signing_keys SET retires_at = ? "
+            + "WHERE algorithm = ? AND retires_at IS NULL";
+
+    private static final String INSERT_SQL = "INSERT INTO jwt_signing_keys "
+            + "(kid, algorithm, public_key, private_key, activates_at, created_at) VALUES (?, ?, ?, ?, ?, now())";
+
+    private static final String DELETE_SQL = "DELETE FROM jwt_signing_keys WHERE retires_at < ?";
+
+    private static final int GCM_NONCE_BYTES = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecretKeySpec encryptionKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public JdbcJwtKeyStore(JdbcTemplate jdbcTemplate, @Value("${jwt.secret}") String secret) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.encryptionKey = deriveKey(secret);
+    }
+
+    @Override
+    public List<StoredKey> load(JwtSigningAlgorithm algorithm, Instant now) {
+        return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+            Timestamp retiresAt = rs.getTimestamp(5);
+            return new StoredKey(rs.getString(1), algorithm,
+                    decodeKeyPair(algorithm, rs.getBytes(2), decrypt(rs.getBytes(3))),
+                    rs.getTimestamp(4).toInstant(),
+                    retiresAt != null ? retiresAt.toInstant() : null);
+        }, algorithm.name(), Timestamp.from(now));
+    }
+
+    @Override
+    @Transactional
+    public boolean addIfStale(StoredKey key, Instant freshAfter, Instant retiresAt) {
+        jdbcTemplate.query(LOCK_SQL, rs -> null);
+        Long fresh = jdbcTemplate.queryForObject(FRESH_SQL, Long.class,
+                key.algorithm().name(), Timestamp.from(freshAfter));
+        if (fresh != null && fresh > 0) {
+            return false;
+        }
+        jdbcTemplate.update(RETIRE_SQL, Timestamp.from(retiresAt), key.algorithm().name());
+        jdbcTemplate.update(INSERT_SQL, key.kid(), key.algorithm().name(),
+                key.keyPair().getPublic().getEncoded(),
+                encrypt(key.keyPair().getPrivate().getEncoded()),
+                Timestamp.from(key.activatesAt()));
+        return true;
+    }
+
+    @Override
+    public int deleteRetired(Instant now) {
+        return jdbcTemplate.update(DELETE_SQL, Timestamp.from(now));
+    }
+
+    private static KeyPair decodeKeyPair(JwtSigningAlgorithm algorithm, byte[] publicKey, byte[] privateKey) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance(algorithm == JwtSigningAlgorithm.EdDSA ? "Ed25519" : "EC");
+            return new KeyPair(factory.generatePublic(new X509EncodedKeySpec(publicKey)),
+                    factory.generatePrivate(new PKCS8EncodedKeySpec(privateKey)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Не удалось прочитать ключ подписи JWT", e);
+        }
+    }
+
+    // nonce || шифртекст с тегом
+    private byte[] encrypt(byte[] plain) {
+        try {
+            byte[] nonce = new byte[GCM_NONCE_BYTES];
+            random.nextBytes(nonce);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, nonce));
+            byte[] encrypted = cipher.doFinal(plain);
+            return ByteBuffer.allocate(nonce.length + encrypted.length).put(nonce).put(encrypted).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Не удалось зашифровать ключ подписи JWT", e);
+        }
+    }
+
+    private byte[] decrypt(byte[] stored) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, stored, 0, GCM_NONCE_BYTES));
+            return cipher.doFinal(stored, GCM_NONCE_BYTES, stored.length - GCM_NONCE_BYTES);
+        } catch (GeneralSecurityException e) {
+            // Другой jwt.secret: ключ из БД прочитать нельзя
+            throw new IllegalStateException("Не удалось расшифровать ключ подписи JWT (проверьте jwt.secret)", e);
+        }
+    }
+
+    private static SecretKeySpec deriveKey(String secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update("jwt-signing-keys:".getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest.digest(Decoders.BASE64.decode(secret)), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.hoteluserservce.util;
+
+import io.jsonwebtoken.Claims;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Неизменяемое представление claims уже проверенного access token.
+ * Создается один раз на токен в {@link JwtUtil#verifyToken(String)}.
+ */
+@Value
+@Builder
+public class JwtClaims {
+    String username;
+    Long userId;
+    String email;
+    String role;
+    // Эпоха токенов пользователя на момент выпуска; в старых токенах claim нет — 0
+    int tokenEpoch;
+    Instant issuedAt;
+    Instant expiresAt;
+
+    public static JwtClaims from(Claims claims) {
+        return JwtClaims.builder()
+                .username(claims.getSubject())
+                .userId(claims.get("userId", Long.class))
+                .email(claims.get("email", String.class))
+                .role(claims.get("role", String.class))
+                .tokenEpoch(claims.get("epoch", Integer.class) != null ? claims.get("epoch", Integer.class) : 0)
+                .issuedAt(claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)
+                .expiresAt(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+                .build();
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
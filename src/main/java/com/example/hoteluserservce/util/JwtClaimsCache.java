@@ -0,0 +1,104 @@
+package com.example.hoteluserservce.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кэш уже проверенных access token.
+ * Ключ — SHA-256 от токена (сам токен в памяти не храним),
+ * запись живет ровно до exp токена, размер ограничен.
+ */
+@Component
+@Slf4j
+public class JwtClaimsCache {
+
+    private final JwtUtil jwtUtil;
+    private final boolean enabled;
+    private final Cache<String, JwtClaims> cache;
+
+    public JwtClaimsCache(JwtUtil jwtUtil,
+                          MeterRegistry meterRegistry,
+                          @Value("${jwt.claims-cache.enabled:true}") boolean enabled,
+                          @Value("${jwt.claims-cache.max-size:10000}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.claims");
+    }
+
+    /**
+     * Возвращает проверенные claims: из кэша, либо после полной проверки подписи.
+     * Бросает {@link io.jsonwebtoken.JwtException}, если токен недействителен.
+     */
+    public JwtClaims verify(String token) {
+        if (!enabled) {
+            return jwtUtil.verifyToken(token);
+        }
+
+        String key = digest(token);
+        JwtClaims cached = cache.getIfPresent(key);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            return cached;
+        }
+
+        // Невалидный токен бросит исключение и в кэш не попадет
+        JwtClaims claims = jwtUtil.verifyToken(token);
+        cache.put(key, claims);
+        return claims;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    // Время жизни записи = оставшееся время жизни токена
+    private static final class TokenExpiry implements Expiry<String, JwtClaims> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+            if (claims.getExpiresAt() == null) {
+                return 0;
+            }
+            long millisLeft = claims.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisLeft));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
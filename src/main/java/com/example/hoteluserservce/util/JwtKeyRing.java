@@ -0,0 +1,239 @@
+package com.example.hoteluserservce.util;
+
+import com.example.hoteluserservce.enums.JwtSigningAlgorithm;
+import com.example.hoteluserservce.util.JwtKeyStore.StoredKey;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Кольцо асимметричных ключей подписи (ES256 / EdDSA).
+ *
+ * Ключи хранятся в JwtKeyStore, общем для всех инстансов: токен, подписанный одним инстансом,
+ * проверяется на другом, а перезапуск не делает выданные токены недействительными.
+ * В памяти — копия, которая перечитывается раз в jwt.keys.reload-interval и при неизвестном kid.
+ *
+ * Новый ключ публикуется в JWKS заранее (jwt.keys.publish-ahead), и только потом
+ * начинает подписывать токены. Старый ключ остается в JWKS, пока не истекут все
+ * подписанные им access token (+ jwt.keys.overlap).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtKeyRing {
+
+    // Перечитывание по неизвестному kid — не чаще, иначе поддельные kid нагрузят БД
+    private static final Duration MISS_RELOAD_INTERVAL = Duration.ofSeconds(5);
+
+    private final JwtKeyStore keyStore;
+
+    @Value("${jwt.signing.algorithm:HS256}")
+    private JwtSigningAlgorithm algorithm;
+
+    @Value("${jwt.access-token.expiration}")
+    private Long accessTokenExpiration;
+
+    @Value("${jwt.keys.publish-ahead:PT10M}")
+    private Duration publishAhead;
+
+    @Value("${jwt.keys.overlap:PT5M}")
+    private Duration overlap;
+
+    @Value("${jwt.keys.rotation-interval:PT24H}")
+    private Duration rotationInterval;
+
+    // Копия при записи: ротация редкая, чтение — на каждый запрос
+    private volatile List<SigningKey> keys = List.of();
+    private volatile long lastMissReload;
+
+    @PostConstruct
+    void init() {
+        if (!algorithm.isAsymmetric()) {
+            return;
+        }
+        // Первый инстанс создает ключ, остальные и перезапуски берут существующий
+        Instant now = Instant.now();
+        if (keyStore.addIfStale(generateKey(now), Instant.EPOCH, now.plusMillis(accessTokenExpiration).plus(overlap))) {
+            log.info("JWT signing key created: algorithm={}", algorithm);
+        }
+        reload();
+        log.info("JWT key ring initialized: algorithm={}, keys={}", algorithm, keys.size());
+    }
+
+    public JwtSigningAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public boolean isEnabled() {
+        return algorithm.isAsymmetric();
+    }
+
+    /**
+     * Плановая ротация. Интервал задается jwt.keys.rotation-interval; если ключ за последние
+     * полинтервала уже сменил другой инстанс, ротация пропускается.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.rotation-interval:PT24H}",
+            initialDelayString = "${jwt.keys.rotation-interval:PT24H}")
+    public synchronized void rotate() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        StoredKey next = generateKey(now.plus(publishAhead));
+        Instant retiresAt = next.activatesAt()
+                .plusMillis(accessTokenExpiration)
+                .plus(overlap);
+
+        if (keyStore.addIfStale(next, now.minus(rotationInterval.dividedBy(2)), retiresAt)) {
+            log.info("JWT signing key rotated: new kid={}, activates at {}", next.kid(), next.activatesAt());
+        }
+        int deleted = keyStore.deleteRetired(now);
+        if (deleted > 0) {
+            log.info("JWT signing keys removed from store: {}", deleted);
+        }
+        reload();
+    }
+
+    /**
+     * Перечитать ключи из хранилища: новые ключи других инстансов, выведенные из JWKS — убрать
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.reload-interval:PT1M}",
+            initialDelayString = "${jwt.keys.reload-interval:PT1M}")
+    public void reload() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            List<SigningKey> loaded = new ArrayList<>();
+            for (StoredKey stored : keyStore.load(algorithm, Instant.now())) {
+                loaded.add(toSigningKey(stored));
+            }
+            keys = List.copyOf(loaded);
+        } catch (RuntimeException e) {
+            // Остаемся на прежней копии: проверка токенов не должна зависеть от доступности БД
+            log.error("JWT key ring reload failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Ключ, которым сейчас подписываются новые токены.
+     */
+    public SigningKey activeKey() {
+        Instant now = Instant.now();
+        SigningKey active = null;
+        for (SigningKey key : keys) {
+            if (!key.getActivatesAt().isAfter(now)) {
+                active = key;
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("Нет активного ключа подписи JWT");
+        }
+        return active;
+    }
+
+    /**
+     * Публичный ключ по kid. Неизвестный kid может быть новым ключом другого инстанса —
+     * тогда кольцо перечитывается (не чаще раза в MISS_RELOAD_INTERVAL).
+     */
+    public Optional<PublicKey> findVerificationKey(String kid) {
+        Optional<PublicKey> key = findLoaded(kid);
+        if (key.isPresent() || !isEnabled()) {
+            return key;
+        }
+        long now = System.nanoTime();
+        if (now - lastMissReload < MISS_RELOAD_INTERVAL.toNanos()) {
+            return Optional.empty();
+        }
+        lastMissReload = now;
+        reload();
+        return findLoaded(kid);
+    }
+
+    private Optional<PublicKey> findLoaded(String kid) {
+        for (SigningKey key : keys) {
+            if (key.getKid().equals(kid)) {
+                return Optional.of(key.getKeyPair().getPublic());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Публичные ключи в формате JWK Set (RFC 7517).
+     */
+    public Map<String, Object> jwks() {
+        List<Map<String, Object>> jwkList = new ArrayList<>(keys.size());
+        for (SigningKey key : keys) {
+            jwkList.add(new LinkedHashMap<>(key.getPublicJwk()));
+        }
+        return Map.of("keys", jwkList);
+    }
+
+    public SignatureAlgorithm signatureAlgorithm() {
+        return algorithm == JwtSigningAlgorithm.EdDSA ? Jwts.SIG.EdDSA : Jwts.SIG.ES256;
+    }
+
+    private StoredKey generateKey(Instant activatesAt) {
+        KeyPair keyPair = algorithm == JwtSigningAlgorithm.EdDSA
+                ? Jwks.CRV.Ed25519.keyPair().build()
+                : Jwts.SIG.ES256.keyPair().build();
+        return new StoredKey(publicJwk(keyPair.getPublic()).getId(), algorithm, keyPair, activatesAt, null);
+    }
+
+    private SigningKey toSigningKey(StoredKey stored) {
+        return new SigningKey(stored.kid(), stored.keyPair(), publicJwk(stored.keyPair().getPublic()),
+                stored.activatesAt(), stored.retiresAt());
+    }
+
+    private PublicJwk<PublicKey> publicJwk(PublicKey publicKey) {
+        return Jwks.builder()
+                .key(publicKey)
+                .algorithm(algorithm.name())
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+    }
+
+    @Getter
+    public static final class SigningKey {
+        private final String kid;
+        private final KeyPair keyPair;
+        private final PublicJwk<PublicKey> publicJwk;
+        private final Instant activatesAt;
+        private final Instant retiresAt;
+
+        private SigningKey(String kid, KeyPair keyPair, PublicJwk<PublicKey> publicJwk,
+                           Instant activatesAt, Instant retiresAt) {
+            this.kid = kid;
+            this.keyPair = keyPair;
+            this.publicJwk = publicJwk;
+            this.activatesAt = activatesAt;
+            this.retiresAt = retiresAt;
+        }
+
+        public PrivateKey getPrivateKey() {
+            return keyPair.getPrivate();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.hoteluserservce.util;
+
+import com.example.hoteluserservce.enums.JwtSigningAlgorithm;
+
+import java.security.KeyPair;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Общее для всех инстансов хранилище ключей подписи JWT: токен, подписанный одним инстансом,
+ * проверяется на любом другом и после перезапуска.
+ */
+public interface JwtKeyStore {
+
+    /**
+     * Ключи алгоритма, еще не выведенные из JWKS на момент now, по возрастанию activatesAt
+     */
+    List<StoredKey> load(JwtSigningAlgorithm algorithm, Instant now);
+
+    /**
+     * Добавить ключ, если у алгоритма нет действующего ключа, активированного после freshAfter.
+     * Действующим ключам назначается retiresAt. false — ключ уже добавил другой инстанс.
+     */
+    boolean addIfStale(StoredKey key, Instant freshAfter, Instant retiresAt);
+
+    /**
+     * Удалить ключи, выведенные из JWKS раньше now
+     */
+    int deleteRetired(Instant now);
+
+    record StoredKey(String kid, JwtSigningAlgorithm algorithm, KeyPair keyPair,
+                     Instant activatesAt, Instant retiresAt) {
+    }
+}
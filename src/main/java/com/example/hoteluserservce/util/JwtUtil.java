@@ -2,15 +2,22 @@ package com.example.hoteluserservce.util;
 
 import com.example.hoteluserservce.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
 import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.HashMap;
@@ -18,9 +25,12 @@ import java.util.Map;
 import java.util.UUID;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtUtil {
 
+    private final JwtKeyRing keyRing;
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -30,9 +40,21 @@ public class JwtUtil {
     @Value("${jwt.refresh-token.expiration}")
     private Long refreshTokenExpiration; // 7 дней
 
-    private SecretKey getSigningKey() {
+    // Ключ и парсер потокобезопасны — строим один раз, а не на каждый вызов
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
         byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parser()
+                .keyLocator(new VerificationKeyLocator())
+                .build();
+    }
+
+    private SecretKey getSigningKey() {
+        return signingKey;
     }
 
     // Генерация Access Token
@@ -42,12 +64,24 @@ public class JwtUtil {
         claims.put("username", user.getUsername());
         claims.put("email", user.getEmail());
         claims.put("role", user.getRole().name());
+        claims.put("epoch", user.getTokenEpoch());
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .claims(claims)
                 .subject(user.getUsername())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + accessTokenExpiration))
+                .expiration(new Date(System.currentTimeMillis() + accessTokenExpiration));
+
+        // Асимметричный режим: подпись активным ключом кольца с kid в заголовке
+        if (keyRing.isEnabled()) {
+            JwtKeyRing.SigningKey activeKey = keyRing.activeKey();
+            return builder
+                    .header().keyId(activeKey.getKid()).and()
+                    .signWith(activeKey.getPrivateKey(), keyRing.signatureAlgorithm())
+                    .compact();
+        }
+
+        return builder
                 .signWith(getSigningKey())
                 .compact();
     }
@@ -60,13 +94,19 @@ public class JwtUtil {
 
     // Извлечение всех claims
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
+    /**
+     * Проверяет подпись и срок действия за один разбор токена.
+     * Бросает {@link JwtException}, если токен недействителен или истек.
+     */
+    public JwtClaims verifyToken(String token) {
+        return JwtClaims.from(extractAllClaims(token));
+    }
+
     // Извлечение username
     public String extractUsername(String token) {
         return extractAllClaims(token).getSubject();
@@ -90,11 +130,29 @@ public class JwtUtil {
     // Валидация токена
     public boolean validateToken(String token, String username) {
         try {
-            String tokenUsername = extractUsername(token);
-            return tokenUsername.equals(username) && !isTokenExpired(token);
+            Claims claims = extractAllClaims(token);
+            return claims.getSubject().equals(username) && !claims.getExpiration().before(new Date());
         } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // Токены с kid проверяются публичным ключом из кольца, без kid — общим HMAC секретом,
+    // но только в режиме HS256: иначе знание jwt.secret позволяло бы обойти асимметричную подпись
+    private class VerificationKeyLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(ProtectedHeader header) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                if (keyRing.isEnabled()) {
+                    throw new JwtException("Токен без kid в режиме " + keyRing.getAlgorithm());
+                }
+                return signingKey;
+            }
+            return keyRing.findVerificationKey(kid)
+                    .orElseThrow(() -> new JwtException("Неизвестный kid: " + kid));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.hoteluserservce.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Значения для логов без секретов.
+ *
+ * Токены не пишутся в лог: вместо них короткий отпечаток SHA-256, по которому
+ * можно связать события одного токена, но нельзя восстановить сам токен.
+ * В email остаются первый символ и домен.
+ */
+public final class LogRedactor {
+
+    private static final int FINGERPRINT_BYTES = 6;
+
+    private LogRedactor() {
+    }
+
+    /**
+     * Email для логов, например "j***@example.com"
+     */
+    public static String email(String email) {
+        if (email == null || email.isEmpty()) {
+            return "<empty>";
+        }
+        int at = email.lastIndexOf('@');
+        if (at <= 0) {
+            return "***";
+        }
+        return email.charAt(0) + "***" + email.substring(at);
+    }
+
+    /**
+     * Отпечаток токена, например "sha256:3f1a9c0b7e22"
+     */
+    public static String token(String token) {
+        if (token == null || token.isEmpty()) {
+            return "<empty>";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return "sha256:" + HexFormat.of().formatHex(digest, 0, FINGERPRINT_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 обязателен для любой JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
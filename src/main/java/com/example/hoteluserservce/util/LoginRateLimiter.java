@@ -0,0 +1,178 @@
+package com.example.hoteluserservce.util;
+
+import com.example.hoteluserservce.exception.LoginRateLimitedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограничение попыток входа до поиска пользователя и проверки BCrypt.
+ *
+ * Token bucket на email и на IP клиента в форме GCRA: состояние ключа — одно AtomicLong
+ * (теоретическое время следующего запроса), попытка — один CAS без блокировок.
+ * Таблицы ограничены max-entries и удаляют ключи без обращений дольше idle-timeout,
+ * поэтому память не больше ~2 × max-entries × ENTRY_BYTES независимо от числа атакующих адресов.
+ */
+@Component
+public class LoginRateLimiter {
+
+    // Оценка на ключ: узел Caffeine, строка ключа (~40 символов), AtomicLong
+    static final long ENTRY_BYTES = 200;
+
+    private final boolean enabled;
+    private final long emailInterval;
+    private final long emailBurst;
+    private final long ipInterval;
+    private final long ipBurst;
+    private final int lockAfterFailures;
+
+    private final Cache<String, AtomicLong> emailBuckets;
+    private final Cache<String, AtomicLong> ipBuckets;
+    private final Cache<String, AtomicInteger> failures;
+
+    private final Counter emailRejected;
+    private final Counter ipRejected;
+    private final Counter accountsLocked;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${security.login-rate-limit.enabled:true}") boolean enabled,
+                            @Value("${security.login-rate-limit.email.capacity:5}") int emailCapacity,
+                            @Value("${security.login-rate-limit.email.period:PT1M}") Duration emailPeriod,
+                            @Value("${security.login-rate-limit.ip.capacity:30}") int ipCapacity,
+                            @Value("${security.login-rate-limit.ip.period:PT1M}") Duration ipPeriod,
+                            @Value("${security.login-rate-limit.max-entries:100000}") long maxEntries,
+                            @Value("${security.login-rate-limit.idle-timeout:PT10M}") Duration idleTimeout,
+                            @Value("${security.login-rate-limit.lock-after-failures:0}") int lockAfterFailures,
+                            @Value("${security.login-rate-limit.failure-window:PT15M}") Duration failureWindow) {
+        this.enabled = enabled;
+        // capacity попыток за period: одна попытка восстанавливается раз в period / capacity
+        this.emailInterval = emailPeriod.toNanos() / emailCapacity;
+        this.emailBurst = emailInterval * (emailCapacity - 1);
+        this.ipInterval = ipPeriod.toNanos() / ipCapacity;
+        this.ipBurst = ipInterval * (ipCapacity - 1);
+        this.lockAfterFailures = lockAfterFailures;
+
+        this.emailBuckets = newTable(maxEntries).expireAfterAccess(idleTimeout).build();
+        this.ipBuckets = newTable(maxEntries).expireAfterAccess(idleTimeout).build();
+        this.failures = newTable(maxEntries).expireAfterWrite(failureWindow).build();
+
+        this.emailRejected = rejectedCounter(meterRegistry, "email");
+        this.ipRejected = rejectedCounter(meterRegistry, "ip");
+        this.accountsLocked = Counter.builder("auth.rate_limit.locked")
+                .description("Аккаунты, заблокированные после серии неверных паролей")
+                .register(meterRegistry);
+
+        Gauge.builder("auth.rate_limit.entries", emailBuckets, Cache::estimatedSize)
+                .tag("key", "email")
+                .register(meterRegistry);
+        Gauge.builder("auth.rate_limit.entries", ipBuckets, Cache::estimatedSize)
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.rate_limit.memory", this,
+                        limiter -> (limiter.emailBuckets.estimatedSize() + limiter.ipBuckets.estimatedSize()
+                                + limiter.failures.estimatedSize()) * ENTRY_BYTES)
+                .description("Оценка памяти таблиц ограничения входа")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Списать попытку входа; при исчерпании лимита по IP или email — LoginRateLimitedException
+     */
+    public void acquire(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (clientIp != null) {
+            long wait = tryAcquire(ipBuckets.get(clientIp, key -> new AtomicLong(Long.MIN_VALUE)),
+                    ipInterval, ipBurst, now);
+            if (wait > 0) {
+                ipRejected.increment();
+                throw new LoginRateLimitedException("Слишком много попыток входа с этого адреса", toSeconds(wait));
+            }
+        }
+        if (email != null) {
+            long wait = tryAcquire(emailBuckets.get(normalizeEmail(email), key -> new AtomicLong(Long.MIN_VALUE)),
+                    emailInterval, emailBurst, now);
+            if (wait > 0) {
+                emailRejected.increment();
+                throw new LoginRateLimitedException("Слишком много попыток входа для этого аккаунта", toSeconds(wait));
+            }
+        }
+    }
+
+    /**
+     * Неверный пароль. true — серия достигла lock-after-failures, аккаунт нужно заблокировать
+     */
+    public boolean recordFailure(String email) {
+        if (!enabled || lockAfterFailures <= 0 || email == null) {
+            return false;
+        }
+        int count = failures.get(normalizeEmail(email), key -> new AtomicInteger()).incrementAndGet();
+        if (count == lockAfterFailures) {
+            accountsLocked.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Успешный вход: сбросить серию неверных паролей и вернуть попытки по email
+     */
+    public void recordSuccess(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+        String key = normalizeEmail(email);
+        failures.invalidate(key);
+        emailBuckets.invalidate(key);
+    }
+
+    /**
+     * GCRA: 0 — попытка разрешена, иначе сколько наносекунд ждать
+     */
+    private static long tryAcquire(AtomicLong theoreticalArrival, long interval, long burst, long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long base = Math.max(current, now);
+            long wait = base - burst - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, base + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static Caffeine<Object, Object> newTable(long maxEntries) {
+        return Caffeine.newBuilder().maximumSize(maxEntries);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("auth.rate_limit.rejected")
+                .description("Попытки входа, отклоненные до проверки пароля")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    // Email ищется без учета регистра, иначе регистр обходил бы лимит
+    private static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.hoteluserservce.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.stereotype.Component;
+
+/**
+ * id для нативных INSERT из того же pooled-lo оптимизатора, что и у persist сущностей.
+ *
+ * Вход, ротация refresh token и импорт передают id явно: DEFAULT nextval у последовательности
+ * с шагом ALLOCATION_SIZE забирал бы целый блок ради одной строки. nextval — раз на блок.
+ * Вызывать в транзакции: за следующим блоком оптимизатор идет через соединение текущей сессии.
+ */
+@Component
+public class PooledIdAllocator {
+
+    /**
+     * Шаг последовательностей id (V5, плейсхолдер idAllocationSize) и allocationSize сущностей
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public long next(Class<?> entityType) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(entityType).getGenerator();
+        return ((Number) generator.generate(session, null)).longValue();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.hoteluserservce.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Пользователи, данные которых недавно записаны в primary: их чтение идет мимо реплик (read-your-writes).
+ *
+ * Запись отмечают сервисы для id пользователя, которого она касается, — в том числе при анонимных
+ * входе, регистрации и обновлении токена. Окно отсчитывается от коммита; откат ничего не отмечает.
+ * Без реплик (datasource.replicas.enabled=false) ничего не хранится.
+ */
+@Component
+public class RecentUserWrites {
+
+    private final boolean enabled;
+    private final Cache<Long, Boolean> writers;
+
+    public RecentUserWrites(@Value("${datasource.replicas.enabled:false}") boolean enabled,
+                            @Value("${datasource.replicas.read-your-writes:PT5S}") Duration readYourWrites,
+                            @Value("${datasource.replicas.max-writers:100000}") long maxWriters) {
+        this.enabled = enabled;
+        this.writers = Caffeine.newBuilder()
+                .maximumSize(maxWriters)
+                .expireAfterWrite(readYourWrites)
+                .build();
+    }
+
+    /**
+     * Отметить запись данных пользователя: после коммита текущей транзакции или сразу, если ее нет
+     */
+    public void record(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writers.put(userId, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writers.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    public boolean wroteRecently(Long userId) {
+        return userId != null && writers.getIfPresent(userId) != null;
+    }
+}
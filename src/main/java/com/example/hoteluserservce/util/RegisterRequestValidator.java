@@ -0,0 +1,52 @@
+package com.example.hoteluserservce.util;
+
+import com.example.hoteluserservce.dto.user.RegisterRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Правила проверки данных регистрации — общие для /api/auth/register и массового импорта
+ */
+@Component
+public class RegisterRequestValidator {
+
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+    /**
+     * Бросает IllegalArgumentException с текстом для клиента.
+     * checkPassword = false — пароль уже захеширован (импорт) и не проверяется.
+     */
+    public void validate(RegisterRequest request, boolean checkPassword) {
+        if (request == null) {
+            throw new IllegalArgumentException("Запрос на регистрацию не может быть пустым");
+        }
+
+        if (request.getEmail() == null || request.getEmail().trim().isEmpty()) {
+            throw new IllegalArgumentException("Email обязателен для заполнения");
+        }
+
+        if (request.getUsername() == null || request.getUsername().trim().isEmpty()) {
+            throw new IllegalArgumentException("Имя пользователя обязательно для заполнения");
+        }
+
+        if (checkPassword && (request.getPassword() == null || request.getPassword().length() < 6)) {
+            throw new IllegalArgumentException("Пароль должен содержать минимум 6 символов");
+        }
+
+        // Проверка на валидность email
+        if (!isValidEmail(request.getEmail())) {
+            throw new IllegalArgumentException("Неверный формат email");
+        }
+
+        // Проверка длины username
+        if (request.getUsername().length() < 3 || request.getUsername().length() > 50) {
+            throw new IllegalArgumentException("Имя пользователя должно быть от 3 до 50 символов");
+        }
+    }
+
+    public boolean isValidEmail(String email) {
+        return email != null && EMAIL_PATTERN.matcher(email).matches();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.hoteluserservce.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Текущие эпохи токенов пользователей в памяти: проверка access token без запроса в БД.
+ *
+ * Хранятся только эпохи, измененные за последние access-token.expiration + overlap: токен,
+ * выпущенный раньше, уже истек, а выпущенный позже несет текущую эпоху. Поэтому размер карты —
+ * число отзывов за время жизни токена, а не число пользователей.
+ * Изменения с других инстансов дочитываются по token_epoch_changed_at раз в refresh-interval;
+ * отзыв на этом инстансе действует сразу после коммита.
+ */
+@Component
+@Slf4j
+public class TokenEpochRegistry {
+
+    public static final String POLL_SQL = "SELECT id, token_epoch, token_epoch_changed_at FROM users "
+            + "WHERE token_epoch_changed_at > ?";
+
+    public static final String BUMP_SQL = "UPDATE users SET token_epoch = token_epoch + 1, "
+            + "token_epoch_changed_at = clock_timestamp() WHERE id = ? RETURNING token_epoch";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Duration retention;
+    private final Duration overlap;
+
+    private final Map<Long, Epoch> epochs = new ConcurrentHashMap<>();
+    // Самое позднее token_epoch_changed_at из прочитанного
+    private volatile LocalDateTime watermark;
+
+    private final Counter rejected;
+
+    public TokenEpochRegistry(JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.epoch.enabled:true}") boolean enabled,
+                              @Value("${jwt.access-token.expiration}") long accessTokenExpiration,
+                              @Value("${jwt.epoch.poll-overlap:PT10S}") Duration overlap) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.overlap = overlap;
+        this.retention = Duration.ofMillis(accessTokenExpiration).plus(overlap);
+
+        this.rejected = Counter.builder("jwt.epoch.rejected")
+                .description("Access token отклонен: эпоха пользователя увеличена")
+                .register(meterRegistry);
+        Gauge.builder("jwt.epoch.entries", epochs, Map::size)
+                .description("Пользователи с недавно отозванными сессиями в памяти")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Отозван ли токен: его эпоха меньше текущей эпохи пользователя
+     */
+    public boolean isRevoked(Long userId, int tokenEpoch) {
+        if (!enabled || userId == null) {
+            return false;
+        }
+        Epoch current = epochs.get(userId);
+        if (current != null && tokenEpoch < current.value()) {
+            rejected.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Увеличить эпоху пользователя в текущей транзакции; в памяти — после коммита
+     */
+    public int bump(Long userId) {
+        Integer epoch = jdbcTemplate.query(BUMP_SQL, rs -> rs.next() ? rs.getInt(1) : null, userId);
+        if (epoch == null) {
+            throw new IllegalArgumentException("Пользователь не найден: " + userId);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(userId, epoch);
+                }
+            });
+        } else {
+            remember(userId, epoch);
+        }
+        return epoch;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.epoch.refresh-interval:PT2S}",
+            initialDelayString = "${jwt.epoch.initial-delay:PT0S}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Изменения старше retention не нужны: токены до них уже истекли
+            LocalDateTime oldest = LocalDateTime.now().minus(retention);
+            LocalDateTime since = watermark != null && watermark.minus(overlap).isAfter(oldest)
+                    ? watermark.minus(overlap)
+                    : oldest;
+            LocalDateTime[] latest = {watermark};
+            int[] loaded = {0};
+
+            // Порядок коммитов не совпадает с порядком отметок времени: окно overlap перечитывается
+            jdbcTemplate.query(POLL_SQL, rs -> {
+                LocalDateTime changedAt = rs.getTimestamp(3).toLocalDateTime();
+                remember(rs.getLong(1), rs.getInt(2));
+                if (latest[0] == null || changedAt.isAfter(latest[0])) {
+                    latest[0] = changedAt;
+                }
+                loaded[0]++;
+            }, Timestamp.valueOf(since));
+
+            watermark = latest[0];
+            if (loaded[0] > 0) {
+                log.debug("Token epochs refreshed: {} changes since {}", loaded[0], since);
+            }
+            evictExpired();
+        } catch (Exception e) {
+            log.error("Token epoch refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // Эпоха только растет: более старое значение из опроса не перезаписывает новое
+    private void remember(Long userId, int epoch) {
+        long now = System.currentTimeMillis();
+        epochs.merge(userId, new Epoch(epoch, now),
+                (old, fresh) -> fresh.value() >= old.value() ? fresh : old);
+    }
+
+    private void evictExpired() {
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        epochs.values().removeIf(epoch -> epoch.seenAt() < cutoff);
+    }
+
+    /**
+     * Эпоха и время, когда инстанс о ней узнал (не раньше фактического изменения)
+     */
+    private record Epoch(int value, long seenAt) {
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.hoteluserservce.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Индекс занятых email и username в памяти (два Bloom filter).
+ *
+ * Строится потоковым чтением таблицы users при старте и пересобирается раз в rebuild-interval,
+ * чтобы убрать старые email/username после изменения профиля. Новые значения добавляются
+ * при регистрации и обновлении. Ответ фильтра "нет" означает, что значение свободно, без запроса в БД;
+ * при ответе "может быть" решает БД. Пока фильтр не построен, все проверки идут в БД.
+ *
+ * Только для публичной проверки доступности: фильтр локален для инстанса и не видит записи
+ * других инстансов до пересборки, поэтому регистрация и изменение email всегда проверяют БД.
+ */
+@Component
+@Slf4j
+public class UserAvailabilityIndex {
+
+    private static final String STREAM_SQL = "SELECT username, email FROM users";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final int fetchSize;
+
+    private volatile Filters current;
+    // Фильтр, который сейчас строится: новые значения пишутся и в него
+    private volatile Filters building;
+
+    private final Counter emailFilterFree;
+    private final Counter emailDbFree;
+    private final Counter emailDbTaken;
+    private final Counter usernameFilterFree;
+    private final Counter usernameDbFree;
+    private final Counter usernameDbTaken;
+
+    public UserAvailabilityIndex(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${users.availability.enabled:true}") boolean enabled,
+                                 @Value("${users.availability.expected-insertions:1000000}") long expectedInsertions,
+                                 @Value("${users.availability.fpp:0.01}") double fpp,
+                                 @Value("${users.availability.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.fetchSize = fetchSize;
+
+        Gauge.builder("users.availability.filter.memory", this, index -> index.memoryBytes())
+                .description("Память, занятая фильтрами email и username")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("users.availability.filter.expected_fpp", this, index -> index.expectedFpp(true))
+                .tag("field", "email")
+                .register(meterRegistry);
+        Gauge.builder("users.availability.filter.expected_fpp", this, index -> index.expectedFpp(false))
+                .tag("field", "username")
+                .register(meterRegistry);
+
+        this.emailFilterFree = checkCounter(meterRegistry, "email", "filter_free");
+        this.emailDbFree = checkCounter(meterRegistry, "email", "db_free");
+        this.emailDbTaken = checkCounter(meterRegistry, "email", "db_taken");
+        this.usernameFilterFree = checkCounter(meterRegistry, "username", "filter_free");
+        this.usernameDbFree = checkCounter(meterRegistry, "username", "db_free");
+        this.usernameDbTaken = checkCounter(meterRegistry, "username", "db_taken");
+
+        // Наблюдаемая доля ложных срабатываний: "может быть" от фильтра, но в БД значения нет
+        Gauge.builder("users.availability.filter.false_positive_rate", this,
+                        index -> falsePositiveRate(index.emailFilterFree, index.emailDbFree))
+                .tag("field", "email")
+                .register(meterRegistry);
+        Gauge.builder("users.availability.filter.false_positive_rate", this,
+                        index -> falsePositiveRate(index.usernameFilterFree, index.usernameDbFree))
+                .tag("field", "username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Занят ли email. dbCheck вызывается, только если фильтр не может ответить "свободно"
+     */
+    public boolean isEmailTaken(String email, BooleanSupplier dbCheck) {
+        Filters filters = current;
+        if (enabled && filters != null && !filters.emails().mightContain(normalizeEmail(email))) {
+            emailFilterFree.increment();
+            return false;
+        }
+        boolean taken = dbCheck.getAsBoolean();
+        (taken ? emailDbTaken : emailDbFree).increment();
+        return taken;
+    }
+
+    public boolean isUsernameTaken(String username, BooleanSupplier dbCheck) {
+        Filters filters = current;
+        if (enabled && filters != null && !filters.usernames().mightContain(username)) {
+            usernameFilterFree.increment();
+            return false;
+        }
+        boolean taken = dbCheck.getAsBoolean();
+        (taken ? usernameDbTaken : usernameDbFree).increment();
+        return taken;
+    }
+
+    /**
+     * Добавить username/email сразу и еще раз после коммита: строка, закоммиченная
+     * после снимка пересборки, иначе не попала бы в новый фильтр
+     */
+    public void add(String username, String email) {
+        if (!enabled) {
+            return;
+        }
+        doAdd(username, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doAdd(username, email);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${users.availability.rebuild-interval:PT6H}",
+            initialDelayString = "${users.availability.initial-delay:PT0S}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        try {
+            Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+            // Запас x2 на рост между пересборками
+            long capacity = Math.max(expectedInsertions, (rows == null ? 0 : rows) * 2);
+            Filters filters = new Filters(BloomFilter.create(capacity, fpp), BloomFilter.create(capacity, fpp));
+            building = filters;
+
+            long loaded = stream(filters);
+
+            current = filters;
+            building = null;
+
+            log.info("User availability filter built: rows={}, capacity={}, memory={} bytes, expectedFpp(email)={}, took {} ms",
+                    loaded, capacity, memoryBytes(), String.format(Locale.ROOT, "%.5f", expectedFpp(true)),
+                    System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            building = null;
+            log.error("User availability filter build failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Курсор Postgres работает только вне autocommit, иначе драйвер прочитает всю выборку в память
+    private long stream(Filters filters) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            long count = 0;
+            try (PreparedStatement statement = connection.prepareStatement(STREAM_SQL)) {
+                statement.setFetchSize(fetchSize);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        filters.add(rs.getString(1), normalizeEmail(rs.getString(2)));
+                        count++;
+                    }
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return count;
+        });
+    }
+
+    private void doAdd(String username, String email) {
+        String normalizedEmail = normalizeEmail(email);
+        // Сначала building, потом current: при замене current выставляется раньше, чем building обнуляется
+        Filters next = building;
+        if (next != null) {
+            next.add(username, normalizedEmail);
+        }
+        Filters filters = current;
+        if (filters != null) {
+            filters.add(username, normalizedEmail);
+        }
+    }
+
+    private long memoryBytes() {
+        Filters filters = current;
+        return filters == null ? 0 : filters.emails().memoryBytes() + filters.usernames().memoryBytes();
+    }
+
+    private double expectedFpp(boolean email) {
+        Filters filters = current;
+        if (filters == null) {
+            return 0;
+        }
+        return email ? filters.emails().expectedFpp() : filters.usernames().expectedFpp();
+    }
+
+    private static double falsePositiveRate(Counter filterFree, Counter dbFree) {
+        double free = filterFree.count() + dbFree.count();
+        return free == 0 ? 0 : dbFree.count() / free;
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String field, String result) {
+        return Counter.builder("users.availability.checks")
+                .tag("field", field)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // Email ищется без учета регистра, как и в UserRepository
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    private record Filters(BloomFilter emails, BloomFilter usernames) {
+        void add(String username, String email) {
+            if (username != null) {
+                usernames.put(username);
+            }
+            if (email != null) {
+                emails.put(email);
+            }
+        }
+    }
+}
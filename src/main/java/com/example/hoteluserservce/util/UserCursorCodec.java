@@ -0,0 +1,123 @@
+package com.example.hoteluserservce.util;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Кодирование позиции keyset-пагинации пользователей в непрозрачный cursor.
+ * Формат до base64: v1|поле|направление|значение поля|id
+ */
+@Component
+public class UserCursorCodec {
+
+    public static final Set<String> SORT_FIELDS = Set.of("id", "createdAt", "username", "email");
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Порядок прокрутки: одно поле из SORT_FIELDS, по умолчанию id. Второй ключ (id) добавляет репозиторий,
+     * поэтому несколько полей в sort — ошибка, а не молча отброшенный хвост.
+     */
+    public Sort.Order resolveOrder(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return Sort.Order.asc("id");
+        }
+
+        checkSupported(sort);
+        if (sort.stream().count() > 1) {
+            throw new IllegalArgumentException("Прокрутка поддерживает сортировку только по одному полю");
+        }
+        return sort.iterator().next();
+    }
+
+    /**
+     * Все поля sort из SORT_FIELDS (для них есть индексы), иначе IllegalArgumentException
+     */
+    public void checkSupported(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!SORT_FIELDS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Сортировка по полю не поддерживается: " + order.getProperty()
+                        + ", доступны: " + SORT_FIELDS);
+            }
+        }
+    }
+
+    public String encode(Sort.Order order, KeysetScrollPosition position) {
+        Map<String, ?> keys = position.getKeys();
+        Object value = keys.get(order.getProperty());
+        Object id = keys.get("id");
+
+        String raw = String.join(SEPARATOR, VERSION, order.getProperty(), order.getDirection().name(),
+                String.valueOf(value), String.valueOf(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public KeysetScrollPosition decode(String cursor, Sort.Order order) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неверный cursor");
+        }
+
+        // Значение (username/email) может содержать разделитель, поэтому id берем с конца
+        int head = nthIndexOf(raw, 3);
+        int tail = raw.lastIndexOf(SEPARATOR);
+        if (head < 0 || tail <= head) {
+            throw new IllegalArgumentException("Неверный cursor");
+        }
+
+        String[] prefix = raw.substring(0, head).split("\\|");
+        if (!VERSION.equals(prefix[0])
+                || !order.getProperty().equals(prefix[1])
+                || !order.getDirection().name().equals(prefix[2])) {
+            throw new IllegalArgumentException("Cursor не соответствует сортировке запроса");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            String value = raw.substring(head + 1, tail);
+            Long id = Long.valueOf(raw.substring(tail + 1));
+            if (!"id".equals(order.getProperty())) {
+                keys.put(order.getProperty(), parseValue(order.getProperty(), value));
+            }
+            keys.put("id", id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Неверный cursor");
+        }
+
+        return ScrollPosition.forward(keys);
+    }
+
+    private static Object parseValue(String property, String value) {
+        return switch (property) {
+            case "createdAt" -> LocalDateTime.parse(value);
+            default -> value;
+        };
+    }
+
+    private static int nthIndexOf(String s, int n) {
+        int index = -1;
+        for (int i = 0; i < n; i++) {
+            index = s.indexOf(SEPARATOR, index + 1);
+            if (index < 0) {
+                return -1;
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.hoteluserservce.util;
+
+import com.example.hoteluserservce.dto.user.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Двухуровневый кэш пользователей в памяти.
+ *
+ * Первый уровень — UserDto по id, второй — индексы username → id и email → id.
+ * Оба уровня ограничены по размеру и TTL. При изменении пользователя записи
+ * сбрасываются сразу и еще раз после коммита транзакции, чтобы параллельное чтение
+ * не вернуло в кэш незакоммиченное или старое состояние.
+ */
+@Component
+public class UserLookupCache {
+
+    private final boolean enabled;
+    private final Cache<Long, UserDto> byId;
+    private final Cache<String, Long> byUsername;
+    private final Cache<String, Long> byEmail;
+
+    public UserLookupCache(MeterRegistry meterRegistry,
+                           @Value("${users.cache.enabled:true}") boolean enabled,
+                           @Value("${users.cache.max-size:50000}") long maxSize,
+                           @Value("${users.cache.ttl:PT5M}") Duration ttl) {
+        this.enabled = enabled;
+        this.byId = newCache(maxSize, ttl);
+        this.byUsername = newCache(maxSize, ttl);
+        this.byEmail = newCache(maxSize, ttl);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "users.by-username");
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users.by-email");
+    }
+
+    public Optional<UserDto> getById(Long id, Function<Long, Optional<UserDto>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        // get(key, loader) учитывает время загрузки в статистике (cache.load.duration)
+        return Optional.ofNullable(byId.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public Optional<UserDto> getByUsername(String username, Supplier<Optional<UserDto>> loader) {
+        return getByKey(byUsername, username, loader);
+    }
+
+    public Optional<UserDto> getByEmail(String email, Supplier<Optional<UserDto>> loader) {
+        return getByKey(byEmail, normalizeEmail(email), loader);
+    }
+
+    /**
+     * Пакетное чтение по id: из кэша, отсутствующие — одним вызовом loader.
+     * В результате только найденные пользователи.
+     */
+    public Map<Long, UserDto> getAllById(Collection<Long> ids, Function<Collection<Long>, List<UserDto>> loader) {
+        if (!enabled) {
+            return toMapById(loader.apply(ids));
+        }
+        return byId.getAll(ids, missing -> toMapById(loader.apply(List.copyOf(missing))));
+    }
+
+    /**
+     * Пакетное чтение по username, результат — username → пользователь (только найденные)
+     */
+    public Map<String, UserDto> getAllByUsername(Collection<String> usernames,
+                                                 Function<Collection<String>, List<UserDto>> loader) {
+        if (!enabled) {
+            return toMapByUsername(loader.apply(usernames));
+        }
+
+        Map<String, UserDto> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String username : usernames) {
+            Long id = byUsername.getIfPresent(username);
+            UserDto cached = id == null ? null : byId.getIfPresent(id);
+            if (cached != null) {
+                result.put(username, cached);
+            } else {
+                missing.add(username);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (UserDto user : loader.apply(missing)) {
+                put(user);
+                result.put(user.getUsername(), user);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Сбросить пользователя по id и по всем переданным username/email (старым и новым)
+     */
+    public void evict(Long id, String... usernamesAndEmails) {
+        if (!enabled) {
+            return;
+        }
+        doEvict(id, usernamesAndEmails);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    doEvict(id, usernamesAndEmails);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+        byUsername.invalidateAll();
+        byEmail.invalidateAll();
+    }
+
+    private Optional<UserDto> getByKey(Cache<String, Long> index, String key, Supplier<Optional<UserDto>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        // Промах по индексу: грузим из БД и заполняем первый уровень.
+        // Внутри функции загрузки нельзя писать в тот же кэш, поэтому второй индекс — отдельно.
+        Long id = index.get(key, k -> loader.get()
+                .map(user -> {
+                    byId.put(user.getId(), user);
+                    Cache<String, Long> other = index == byUsername ? byEmail : byUsername;
+                    String otherKey = index == byUsername ? normalizeEmail(user.getEmail()) : user.getUsername();
+                    if (otherKey != null) {
+                        other.put(otherKey, user.getId());
+                    }
+                    return user.getId();
+                })
+                .orElse(null));
+
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        UserDto cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        // Первый уровень вытеснен раньше индекса — перезагружаем
+        index.invalidate(key);
+        Optional<UserDto> reloaded = loader.get();
+        reloaded.ifPresent(this::put);
+        return reloaded;
+    }
+
+    private void put(UserDto user) {
+        byId.put(user.getId(), user);
+        if (user.getUsername() != null) {
+            byUsername.put(user.getUsername(), user.getId());
+        }
+        if (user.getEmail() != null) {
+            byEmail.put(normalizeEmail(user.getEmail()), user.getId());
+        }
+    }
+
+    private void doEvict(Long id, String... usernamesAndEmails) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        for (String key : usernamesAndEmails) {
+            if (key != null) {
+                byUsername.invalidate(key);
+                byEmail.invalidate(normalizeEmail(key));
+            }
+        }
+    }
+
+    private static Map<Long, UserDto> toMapById(List<UserDto> users) {
+        Map<Long, UserDto> map = new HashMap<>();
+        users.forEach(user -> map.put(user.getId(), user));
+        return map;
+    }
+
+    private static Map<String, UserDto> toMapByUsername(List<UserDto> users) {
+        Map<String, UserDto> map = new HashMap<>();
+        users.forEach(user -> map.put(user.getUsername(), user));
+        return map;
+    }
+
+    // Email ищется без учета регистра, поэтому и ключ кэша нормализуем
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    private static <K, V> Cache<K, V> newCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+-- Базовая схема (соответствует тому, что раньше создавал ddl-auto=update).
+-- На существующей БД пропускается: spring.flyway.baseline-on-migrate=true, baseline-version=1.
+-- Исключение — users.password: ddl-auto создавал VARCHAR(60) по прежнему @Size(max = 60),
+-- здесь сразу VARCHAR(255); существующие БД расширяет V7.
+
+CREATE TABLE IF NOT EXISTS users (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username       VARCHAR(255) NOT NULL,
+    email          VARCHAR(255) NOT NULL UNIQUE,
+    password       VARCHAR(255) NOT NULL,
+    first_name     VARCHAR(255),
+    last_name      VARCHAR(255),
+    phone          VARCHAR(255),
+    role           VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'HOTEL_OWNER', 'ADMIN')),
+    email_verified BOOLEAN NOT NULL DEFAULT FALSE,
+    account_locked BOOLEAN NOT NULL DEFAULT FALSE,
+    last_login     TIMESTAMP(6),
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token      VARCHAR(255) NOT NULL UNIQUE,
+    user_id    BIGINT       NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6),
+    revoked    BOOLEAN      NOT NULL DEFAULT FALSE
+);
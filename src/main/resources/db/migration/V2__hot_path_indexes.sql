@@ -0,0 +1,19 @@
+-- Индексы для горячих запросов. CONCURRENTLY — без блокировки записи,
+-- поэтому миграция выполняется вне транзакции (см. V2__hot_path_indexes.sql.conf).
+
+-- UserRepository.findByUsername / findDtoByUsername (/api/user/profile, updateUserByUsername).
+-- Не UNIQUE: регистрация до сих пор не проверяла username, в старых данных возможны дубли.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username ON users (username);
+
+-- findByEmail / existsByEmail / findDtoByEmail сравнивают lower(email)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower ON users (lower(email));
+
+-- Поиск токенов пользователя (отзыв всех сессий)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+
+-- RefreshTokenReaper: выборка истекших токенов порциями
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+
+-- RefreshTokenReaper: отозванные токены старше revoked-retention
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_revoked_created_at
+    ON refresh_tokens (created_at) WHERE revoked;
@@ -0,0 +1,7 @@
+-- Эпоха токенов пользователя: access token с эпохой меньше текущей отклоняется
+-- (выход на всех устройствах, блокировка). ADD COLUMN с константой по умолчанию
+-- не переписывает таблицу (PostgreSQL 11+).
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_epoch INTEGER NOT NULL DEFAULT 0;
+
+-- Когда эпоха менялась: TokenEpochRegistry дочитывает изменения по этому полю
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_epoch_changed_at TIMESTAMP(6);
@@ -0,0 +1,4 @@
+-- TokenEpochRegistry: изменения эпохи после отметки. Частичный индекс — только пользователи,
+-- у которых эпоха хоть раз менялась. CONCURRENTLY — вне транзакции (см. .conf).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_token_epoch_changed_at
+    ON users (token_epoch_changed_at) WHERE token_epoch_changed_at IS NOT NULL;
@@ -0,0 +1,29 @@
+-- Hibernate берет id users и refresh_tokens из последовательности блоками (pooled): одна nextval
+-- на ${idAllocationSize} вставок, INSERT без RETURNING id и может уйти JDBC batch.
+-- Последовательность identity-колонки Hibernate не видит (ее нет в information_schema.sequences),
+-- поэтому identity заменяется обычной последовательностью с тем же именем и DEFAULT nextval.
+-- Существующие id не меняются: новая последовательность начинается после максимального id
+-- и после уже выданных значений. Вставки с DEFAULT (нативный INSERT токена, импорт, COPY)
+-- берут одно значение и пропускают остаток шага.
+DO $$
+DECLARE
+    tbl     TEXT;
+    next_id BIGINT;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['users', 'refresh_tokens'] LOOP
+        EXECUTE format('LOCK TABLE %I IN ACCESS EXCLUSIVE MODE', tbl);
+        EXECUTE format('SELECT GREATEST(COALESCE(MAX(id), 0), COALESCE((SELECT last_value FROM pg_sequences '
+                           || 'WHERE schemaname = current_schema() AND sequencename = %L), 0)) + 1 FROM %I',
+                       tbl || '_id_seq', tbl)
+            INTO next_id;
+
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', tbl);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', tbl);
+        EXECUTE format('DROP SEQUENCE IF EXISTS %I', tbl || '_id_seq');
+
+        EXECUTE format('CREATE SEQUENCE %I INCREMENT BY ${idAllocationSize} START WITH %s OWNED BY %I.id',
+                       tbl || '_id_seq', next_id, tbl);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', tbl, tbl || '_id_seq');
+    END LOOP;
+END
+$$;
@@ -0,0 +1,11 @@
+-- Ключи подписи JWT (ES256 / EdDSA), общие для всех инстансов: см. JdbcJwtKeyStore.
+-- private_key — PKCS#8, зашифрованный AES-GCM ключом, производным от jwt.secret (nonce || шифртекст).
+CREATE TABLE IF NOT EXISTS jwt_signing_keys (
+    kid          VARCHAR(64) PRIMARY KEY,
+    algorithm    VARCHAR(16) NOT NULL,
+    public_key   BYTEA       NOT NULL,
+    private_key  BYTEA       NOT NULL,
+    activates_at TIMESTAMPTZ NOT NULL,
+    retires_at   TIMESTAMPTZ,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now()
+);
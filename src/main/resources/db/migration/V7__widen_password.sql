@@ -0,0 +1,4 @@
+-- Хеши с префиксом алгоритма ({bcrypt}$2a$10$... — 68 символов, {argon2}... — длиннее)
+-- не помещаются в VARCHAR(60), созданный ddl-auto. Расширение varchar в PostgreSQL
+-- не переписывает таблицу: меняются только метаданные.
+ALTER TABLE users ALTER COLUMN password TYPE VARCHAR(255);
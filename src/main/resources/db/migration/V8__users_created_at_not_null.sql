@@ -0,0 +1,9 @@
+-- Keyset-прокрутка по createdAt (/api/admin/users/scroll): NULL в ключе ломает cursor
+-- и выпадает из сравнений created_at > :value, поэтому колонка становится обязательной.
+-- Приложение всегда заполняет created_at (@PrePersist, импорт); NULL возможны только в старых строках,
+-- для них берется самая ранняя известная отметка (LEAST пропускает NULL).
+UPDATE users
+SET created_at = COALESCE(LEAST(updated_at, last_login), LOCALTIMESTAMP)
+WHERE created_at IS NULL;
+
+ALTER TABLE users ALTER COLUMN created_at SET NOT NULL;
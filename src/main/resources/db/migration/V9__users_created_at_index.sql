@@ -0,0 +1,3 @@
+-- UserScrollRepository.scrollDtos с sort=createdAt: порядок (created_at, id) и условие по этой паре
+-- читаются из индекса без сортировки всей таблицы. CONCURRENTLY — вне транзакции (см. .conf).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_at_id ON users (created_at, id);
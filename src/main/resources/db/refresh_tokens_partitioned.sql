@@ -0,0 +1,56 @@
+-- Перевод refresh_tokens на секционирование по expires_at (по дням)
+-- для refresh-tokens.reaper.mode=partition.
+--
+-- Истекшие токены удаляются через DROP секции, а не построчным DELETE.
+-- Уникальность в секционированной таблице должна включать ключ секционирования,
+-- поэтому уникальный индекс строится по (token, expires_at); токены — случайные UUID.
+-- Секции на ближайшие дни создает RefreshTokenReaper, ниже — только текущие;
+-- строки вне созданных секций попадают в секцию DEFAULT и удаляются построчно.
+-- id по-прежнему берется из refresh_tokens_id_seq (V5): последовательность переходит
+-- к новой таблице до удаления старой, иначе DROP удалил бы ее вместе с колонкой (OWNED BY).
+-- Выполнять в окно обслуживания, приложение должно быть остановлено.
+
+BEGIN;
+
+ALTER TABLE refresh_tokens RENAME TO refresh_tokens_old;
+
+CREATE TABLE refresh_tokens (
+    id          BIGINT       NOT NULL DEFAULT nextval('refresh_tokens_id_seq'),
+    token       VARCHAR(255) NOT NULL,
+    user_id     BIGINT       NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL,
+    created_at  TIMESTAMP(6),
+    revoked     BOOLEAN      NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (id, expires_at),
+    UNIQUE (token, expires_at)
+) PARTITION BY RANGE (expires_at);
+
+CREATE INDEX ON refresh_tokens (token);
+CREATE INDEX ON refresh_tokens (user_id);
+
+-- Секции с сегодняшнего дня на срок жизни refresh token (7 дней) с запасом
+DO $$
+DECLARE
+    d DATE := CURRENT_DATE;
+BEGIN
+    WHILE d <= CURRENT_DATE + 10 LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS refresh_tokens_p%s PARTITION OF refresh_tokens FOR VALUES FROM (%L) TO (%L)',
+            to_char(d, 'YYYYMMDD'), d, d + 1);
+        d := d + 1;
+    END LOOP;
+END $$;
+
+CREATE TABLE refresh_tokens_default PARTITION OF refresh_tokens DEFAULT;
+
+-- Переносим только живые токены
+INSERT INTO refresh_tokens (id, token, user_id, expires_at, created_at, revoked)
+SELECT id, token, user_id, expires_at, created_at, revoked
+FROM refresh_tokens_old
+WHERE expires_at >= CURRENT_DATE AND revoked = FALSE;
+
+ALTER SEQUENCE refresh_tokens_id_seq OWNED BY refresh_tokens.id;
+
+DROP TABLE refresh_tokens_old;
+
+COMMIT;
@@ -0,0 +1,300 @@
+package com.example.hoteluserservce.repository;
+
+import com.example.hoteluserservce.job.LastLoginWriteBehind;
+import com.example.hoteluserservce.util.TokenEpochRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Регрессионная проверка планов запросов.
+ *
+ * Каждый метод UserRepository, UserScrollRepository и RefreshTokenRepository (и SQL фоновых задач)
+ * вызывается на встроенном PostgreSQL со схемой из миграций Flyway. SQL, который при этом
+ * уходит в JDBC, проходит EXPLAIN с теми же параметрами при enable_seqscan = off:
+ * Seq Scan в плане означает, что подходящего индекса нет. Метод репозитория без вызова в {@link #calls()}
+ * тоже считается ошибкой.
+ */
+@SpringBootTest(properties = {
+        "spring.devtools.restart.enabled=false",
+        "logging.level.root=WARN"
+})
+class QueryPlanTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    // SQL и параметры, перехваченные в текущем потоке (фоновые задачи приложения не мешают)
+    private static final ThreadLocal<List<RecordedStatement>> RECORDING = new ThreadLocal<>();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private LastLoginWriteBehind lastLoginWriteBehind;
+
+    @Autowired
+    private TokenEpochRegistry tokenEpochRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @Test
+    void everyRepositoryMethodIsChecked() {
+        Set<String> checked = calls().keySet();
+        List<String> missing = new ArrayList<>();
+        for (Class<?> repository : List.of(UserRepository.class, UserScrollRepository.class,
+                RefreshTokenRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || method.isDefault() || method.isSynthetic()) {
+                    continue;
+                }
+                String key = repository.getSimpleName() + "." + method.getName();
+                if (!checked.contains(key)) {
+                    missing.add(key);
+                }
+            }
+        }
+
+        assertThat(missing).as("методы репозиториев без проверки плана").isEmpty();
+    }
+
+    @Test
+    void queriesUseIndexes() {
+        Map<String, String> failures = new TreeMap<>();
+        calls().forEach((name, call) -> {
+            List<RecordedStatement> statements = record(call);
+            if (statements.isEmpty()) {
+                failures.put(name, "не выполнил ни одного запроса");
+            }
+            for (RecordedStatement statement : statements) {
+                String plan = explain(statement);
+                if (plan.contains("Seq Scan")) {
+                    failures.put(name, statement.sql() + "\n" + plan);
+                }
+            }
+        });
+
+        assertThat(failures).as("запросы с Seq Scan").isEmpty();
+    }
+
+    // Вызовы с правдоподобными аргументами; данные в таблицах не нужны
+    private Map<String, Runnable> calls() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+
+        calls.put("UserRepository.findByEmail", () -> userRepository.findByEmail("guest@example.com"));
+        calls.put("UserRepository.findByUsername", () -> userRepository.findByUsername("guest"));
+        calls.put("UserRepository.existsByEmail", () -> userRepository.existsByEmail("guest@example.com"));
+        calls.put("UserRepository.existsByUsername", () -> userRepository.existsByUsername("guest"));
+        calls.put("UserRepository.findDtoById", () -> userRepository.findDtoById(1L));
+        calls.put("UserRepository.findDtoByUsername", () -> userRepository.findDtoByUsername("guest"));
+        calls.put("UserRepository.findDtoByEmail", () -> userRepository.findDtoByEmail("guest@example.com"));
+        calls.put("UserRepository.findDtosByIdIn", () -> userRepository.findDtosByIdIn(List.of(1L, 2L, 3L)));
+        calls.put("UserRepository.findDtosByUsernameIn",
+                () -> userRepository.findDtosByUsernameIn(List.of("guest", "owner")));
+        calls.put("UserRepository.findAllDtos",
+                () -> userRepository.findAllDtos(PageRequest.of(2, 50, Sort.by("id"))));
+        // Следующая страница после id из cursor
+        calls.put("UserScrollRepository.scrollDtos",
+                () -> userRepository.scrollDtos(Sort.Order.asc("id"), ScrollPosition.forward(Map.of("id", 1L)), 50));
+        // Остальные поля UserCursorCodec.SORT_FIELDS: первая страница и следующая после (значение, id)
+        for (Sort.Order order : List.of(Sort.Order.desc("createdAt"), Sort.Order.asc("username"),
+                Sort.Order.asc("email"))) {
+            Object value = "createdAt".equals(order.getProperty()) ? now : "guest";
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(order.getProperty(), value);
+            keys.put("id", 1L);
+            calls.put("UserScrollRepository.scrollDtos(" + order + ")",
+                    () -> userRepository.scrollDtos(order, ScrollPosition.keyset(), 50));
+            calls.put("UserScrollRepository.scrollDtos(" + order + ", cursor)",
+                    () -> userRepository.scrollDtos(order, ScrollPosition.forward(keys), 50));
+        }
+        calls.put("UserRepository.updatePassword", () -> userRepository.updatePassword(1L, "x"));
+        calls.put("UserRepository.lockAccount", () -> userRepository.lockAccount(1L));
+
+        calls.put("RefreshTokenRepository.findByToken", () -> refreshTokenRepository.findByToken("token"));
+        calls.put("RefreshTokenRepository.rotateToken",
+                () -> refreshTokenRepository.rotateToken("old", 1L, "new", now.plusDays(7), now));
+        calls.put("RefreshTokenRepository.insertToken",
+                () -> refreshTokenRepository.insertToken(1L, "token", 1L, now.plusDays(7), now));
+        calls.put("RefreshTokenRepository.revokeAllByUserId", () -> refreshTokenRepository.revokeAllByUserId(1L));
+
+        // Не репозитории, но выполняются пакетом после входов, на каждом опросе и при отзыве сессий
+        calls.put("LastLoginWriteBehind.flush", () -> {
+            lastLoginWriteBehind.record(1L, now);
+            lastLoginWriteBehind.flush();
+        });
+        calls.put("TokenEpochRegistry.refresh", tokenEpochRegistry::refresh);
+        calls.put("TokenEpochRegistry.bump", () -> {
+            try {
+                tokenEpochRegistry.bump(1L);
+            } catch (IllegalArgumentException e) {
+                // Пользователя нет, но UPDATE уже выполнен и перехвачен
+            }
+        });
+        return calls;
+    }
+
+    // Вызов в транзакции, которая откатывается: UPDATE/INSERT ничего не оставляют
+    private List<RecordedStatement> record(Runnable call) {
+        List<RecordedStatement> statements = new ArrayList<>();
+        RECORDING.set(statements);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                call.run();
+                status.setRollbackOnly();
+            });
+        } finally {
+            RECORDING.remove();
+        }
+        return statements;
+    }
+
+    private String explain(RecordedStatement statement) {
+        DataSource target = ((DelegatingDataSource) dataSource).getTargetDataSource();
+        try (Connection connection = target.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement set = connection.createStatement()) {
+                // SET LOCAL действует только в этой транзакции, EXPLAIN без ANALYZE ничего не меняет
+                set.execute("SET LOCAL enable_seqscan = off");
+            }
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                for (Bind bind : statement.binds().values()) {
+                    bind.setter().invoke(explain, bind.args());
+                }
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                }
+                return String.join("\n", lines);
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            throw new IllegalStateException("EXPLAIN не выполнился: " + statement.sql(), e);
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        // Пул приложения за прокси, который в потоке с RECORDING запоминает SQL и параметры
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!"dataSource".equals(beanName) || !(bean instanceof DataSource target)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(target) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return recording(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    private static Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (RECORDING.get() != null && "prepareStatement".equals(method.getName())) {
+                        return recording((PreparedStatement) result, (String) args[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement recording(PreparedStatement statement, String sql) {
+        Map<Integer, Bind> binds = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        binds.put(index, new Bind(method, args.clone()));
+                    } else if (name.startsWith("execute") || "addBatch".equals(name)) {
+                        List<RecordedStatement> statements = RECORDING.get();
+                        if (statements != null) {
+                            statements.add(new RecordedStatement(sql, new TreeMap<>(binds)));
+                        }
+                    } else if ("clearParameters".equals(name)) {
+                        binds.clear();
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record Bind(Method setter, Object[] args) {
+    }
+
+    private record RecordedStatement(String sql, Map<Integer, Bind> binds) {
+    }
+}
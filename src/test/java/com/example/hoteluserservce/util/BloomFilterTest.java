@@ -0,0 +1,79 @@
+package com.example.hoteluserservce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+
+        assertThat(filter.mightContain("guest@example.com")).isFalse();
+        assertThat(filter.expectedFpp()).isZero();
+    }
+
+    @Test
+    void hasNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@example.com"));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i + "@example.com")))
+                .isTrue();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("absent" + i))
+                .count();
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFpp()).isBetween(0.005, 0.02);
+    }
+
+    @Test
+    void sizesBitsAndHashesForTargetRate() {
+        BloomFilter filter = BloomFilter.create(1_000_000, 0.01);
+
+        // ~9.6 бит на значение и 7 хешей для 1%
+        assertThat(filter.bitSize()).isBetween(9_585_000L, 9_586_000L);
+        assertThat(filter.hashCount()).isEqualTo(7);
+        assertThat(filter.memoryBytes()).isEqualTo(filter.bitSize() / 8);
+        assertThat(filter.expectedInsertions()).isEqualTo(1_000_000);
+    }
+
+    @Test
+    void concurrentPutsAreNotLost() throws InterruptedException {
+        BloomFilter filter = BloomFilter.create(40_000, 0.01);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            executor.execute(() -> IntStream.range(0, 10_000).forEach(i -> filter.put(thread + ":" + i)));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain(thread + ":" + i))).isTrue();
+        }
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> BloomFilter.create(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BloomFilter.create(100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BloomFilter.create(100, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.hoteluserservce.util;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtClaimsCacheTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = mock(JwtUtil.class);
+    }
+
+    @Test
+    void verifiesTokenOnceWhileCached() {
+        JwtClaims claims = claims(Instant.now().plus(Duration.ofMinutes(15)));
+        when(jwtUtil.verifyToken("token")).thenReturn(claims);
+        JwtClaimsCache cache = cache(true);
+
+        assertThat(cache.verify("token")).isSameAs(claims);
+        assertThat(cache.verify("token")).isSameAs(claims);
+
+        verify(jwtUtil, times(1)).verifyToken("token");
+    }
+
+    @Test
+    void doesNotCacheInvalidToken() {
+        when(jwtUtil.verifyToken("bad")).thenThrow(new JwtException("signature"));
+        JwtClaimsCache cache = cache(true);
+
+        assertThatThrownBy(() -> cache.verify("bad")).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> cache.verify("bad")).isInstanceOf(JwtException.class);
+
+        verify(jwtUtil, times(2)).verifyToken("bad");
+    }
+
+    @Test
+    void reverifiesExpiredClaims() {
+        when(jwtUtil.verifyToken("token")).thenReturn(claims(Instant.now().minusSeconds(1)));
+        JwtClaimsCache cache = cache(true);
+
+        cache.verify("token");
+        cache.verify("token");
+
+        verify(jwtUtil, times(2)).verifyToken("token");
+    }
+
+    @Test
+    void invalidateAllDropsCachedClaims() {
+        when(jwtUtil.verifyToken("token")).thenReturn(claims(Instant.now().plus(Duration.ofMinutes(15))));
+        JwtClaimsCache cache = cache(true);
+
+        cache.verify("token");
+        cache.invalidateAll();
+        cache.verify("token");
+
+        verify(jwtUtil, times(2)).verifyToken("token");
+    }
+
+    @Test
+    void disabledCacheAlwaysVerifies() {
+        when(jwtUtil.verifyToken("token")).thenReturn(claims(Instant.now().plus(Duration.ofMinutes(15))));
+        JwtClaimsCache cache = cache(false);
+
+        cache.verify("token");
+        cache.verify("token");
+
+        verify(jwtUtil, times(2)).verifyToken("token");
+    }
+
+    private JwtClaimsCache cache(boolean enabled) {
+        return new JwtClaimsCache(jwtUtil, new SimpleMeterRegistry(), enabled, 100);
+    }
+
+    private static JwtClaims claims(Instant expiresAt) {
+        return JwtClaims.builder()
+                .username("guest")
+                .userId(1L)
+                .role("USER")
+                .issuedAt(Instant.now())
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.hoteluserservce.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogRedactorTest {
+
+    @Test
+    void tokenFingerprintIsStableAndShort() {
+        String token = "5f0c7a1e-8d2b-4c4e-9a57-1b2f3e4d5c6b";
+
+        String fingerprint = LogRedactor.token(token);
+
+        assertThat(fingerprint).matches("sha256:[0-9a-f]{12}");
+        assertThat(fingerprint).doesNotContain(token.substring(0, 8));
+        assertThat(LogRedactor.token(token)).isEqualTo(fingerprint);
+        assertThat(LogRedactor.token(token + "x")).isNotEqualTo(fingerprint);
+    }
+
+    @Test
+    void tokenFingerprintMatchesSha256Prefix() {
+        // SHA-256("abc") = ba7816bf8f01cfea...
+        assertThat(LogRedactor.token("abc")).isEqualTo("sha256:ba7816bf8f01");
+    }
+
+    @Test
+    void emptyToken() {
+        assertThat(LogRedactor.token(null)).isEqualTo("<empty>");
+        assertThat(LogRedactor.token("")).isEqualTo("<empty>");
+    }
+
+    @Test
+    void emailKeepsFirstCharacterAndDomain() {
+        assertThat(LogRedactor.email("john.smith@example.com")).isEqualTo("j***@example.com");
+        assertThat(LogRedactor.email("a@b@example.com")).isEqualTo("a***@example.com");
+    }
+
+    @Test
+    void malformedOrEmptyEmail() {
+        assertThat(LogRedactor.email("not-an-email")).isEqualTo("***");
+        assertThat(LogRedactor.email("@example.com")).isEqualTo("***");
+        assertThat(LogRedactor.email(null)).isEqualTo("<empty>");
+        assertThat(LogRedactor.email("")).isEqualTo("<empty>");
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.hoteluserservce.util;
+
+import com.example.hoteluserservce.exception.LoginRateLimitedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void allowsEmailCapacityThenRejects() {
+        LoginRateLimiter limiter = limiter(3, HOUR, 100, 0);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("guest@example.com", "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("guest@example.com", "10.0.0.1"))
+                .isInstanceOf(LoginRateLimitedException.class)
+                .hasMessageContaining("аккаунта")
+                .satisfies(e -> assertThat(((LoginRateLimitedException) e).getRetryAfterSeconds())
+                        .isBetween(1L, HOUR.toSeconds() / 3));
+    }
+
+    @Test
+    void emailKeyIgnoresCase() {
+        LoginRateLimiter limiter = limiter(1, HOUR, 100, 0);
+
+        limiter.acquire("Guest@Example.com", "10.0.0.1");
+
+        assertThatThrownBy(() -> limiter.acquire("guest@example.com", "10.0.0.2"))
+                .isInstanceOf(LoginRateLimitedException.class);
+    }
+
+    @Test
+    void limitsAddressAcrossEmails() {
+        LoginRateLimiter limiter = limiter(100, HOUR, 2, 0);
+
+        limiter.acquire("a@example.com", "10.0.0.1");
+        limiter.acquire("b@example.com", "10.0.0.1");
+
+        assertThatThrownBy(() -> limiter.acquire("c@example.com", "10.0.0.1"))
+                .isInstanceOf(LoginRateLimitedException.class)
+                .hasMessageContaining("адреса");
+        assertThatCode(() -> limiter.acquire("c@example.com", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void refillsAfterInterval() throws InterruptedException {
+        LoginRateLimiter limiter = limiter(1, Duration.ofMillis(50), 100, 0);
+
+        limiter.acquire("guest@example.com", null);
+        assertThatThrownBy(() -> limiter.acquire("guest@example.com", null))
+                .isInstanceOf(LoginRateLimitedException.class);
+
+        Thread.sleep(60);
+        assertThatCode(() -> limiter.acquire("guest@example.com", null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void successRestoresEmailAttempts() {
+        LoginRateLimiter limiter = limiter(1, HOUR, 100, 0);
+
+        limiter.acquire("guest@example.com", "10.0.0.1");
+        limiter.recordSuccess("guest@example.com");
+
+        assertThatCode(() -> limiter.acquire("guest@example.com", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void signalsLockOnceAfterFailureSeries() {
+        LoginRateLimiter limiter = limiter(100, HOUR, 100, 3);
+
+        assertThat(limiter.recordFailure("guest@example.com")).isFalse();
+        assertThat(limiter.recordFailure("GUEST@example.com")).isFalse();
+        assertThat(limiter.recordFailure("guest@example.com")).isTrue();
+        assertThat(limiter.recordFailure("guest@example.com")).isFalse();
+    }
+
+    @Test
+    void successResetsFailureSeries() {
+        LoginRateLimiter limiter = limiter(100, HOUR, 100, 2);
+
+        limiter.recordFailure("guest@example.com");
+        limiter.recordSuccess("guest@example.com");
+
+        assertThat(limiter.recordFailure("guest@example.com")).isFalse();
+        assertThat(limiter.recordFailure("guest@example.com")).isTrue();
+    }
+
+    @Test
+    void lockDisabledByDefault() {
+        LoginRateLimiter limiter = limiter(100, HOUR, 100, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.recordFailure("guest@example.com")).isFalse();
+        }
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        LoginRateLimiter limiter = new LoginRateLimiter(new SimpleMeterRegistry(), false,
+                1, HOUR, 1, HOUR, 1_000, HOUR, 1, HOUR);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("guest@example.com", "10.0.0.1");
+        }
+        assertThat(limiter.recordFailure("guest@example.com")).isFalse();
+    }
+
+    private static LoginRateLimiter limiter(int emailCapacity, Duration emailPeriod, int ipCapacity,
+                                            int lockAfterFailures) {
+        return new LoginRateLimiter(new SimpleMeterRegistry(), true,
+                emailCapacity, emailPeriod, ipCapacity, HOUR, 1_000, HOUR, lockAfterFailures, HOUR);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.hoteluserservce.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserCursorCodecTest {
+
+    private final UserCursorCodec codec = new UserCursorCodec();
+
+    @Test
+    void defaultsToIdAscending() {
+        assertThat(codec.resolveOrder(Sort.unsorted())).isEqualTo(Sort.Order.asc("id"));
+        assertThat(codec.resolveOrder(null)).isEqualTo(Sort.Order.asc("id"));
+    }
+
+    @Test
+    void rejectsUnsupportedSortField() {
+        assertThatThrownBy(() -> codec.resolveOrder(Sort.by("password")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsSeveralSortFields() {
+        assertThatThrownBy(() -> codec.resolveOrder(Sort.by("createdAt", "username")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.checkSupported(Sort.by("createdAt", "password")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void blankCursorStartsFromBeginning() {
+        KeysetScrollPosition position = codec.decode(null, Sort.Order.asc("id"));
+
+        assertThat(position.isInitial()).isTrue();
+        assertThat(codec.decode(" ", Sort.Order.asc("id")).isInitial()).isTrue();
+    }
+
+    @Test
+    void roundTripsIdCursor() {
+        Sort.Order order = Sort.Order.asc("id");
+
+        KeysetScrollPosition decoded = codec.decode(codec.encode(order, position("id", 42L)), order);
+
+        assertThat(decoded.getKeys()).containsExactly(Map.entry("id", 42L));
+        assertThat(decoded.scrollsForward()).isTrue();
+    }
+
+    @Test
+    void roundTripsCreatedAtCursor() {
+        Sort.Order order = Sort.Order.desc("createdAt");
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000);
+
+        KeysetScrollPosition decoded = codec.decode(codec.encode(order, position("createdAt", createdAt)), order);
+
+        assertThat(decoded.getKeys()).containsExactly(Map.entry("createdAt", createdAt), Map.entry("id", 7L));
+    }
+
+    @Test
+    void keepsSeparatorInsideValue() {
+        Sort.Order order = Sort.Order.asc("username");
+
+        KeysetScrollPosition decoded = codec.decode(codec.encode(order, position("username", "a|b|c")), order);
+
+        assertThat(decoded.getKeys()).containsExactly(Map.entry("username", "a|b|c"), Map.entry("id", 7L));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = codec.encode(Sort.Order.asc("email"), position("email", "??>>@example.com"));
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsCursorForOtherSort() {
+        String cursor = codec.encode(Sort.Order.asc("email"), position("email", "guest@example.com"));
+
+        assertThatThrownBy(() -> codec.decode(cursor, Sort.Order.desc("email")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("сортировке");
+        assertThatThrownBy(() -> codec.decode(cursor, Sort.Order.asc("username")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        Sort.Order order = Sort.Order.asc("createdAt");
+
+        assertThatThrownBy(() -> codec.decode("%%%", order)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decode(raw("v1|createdAt"), order))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decode(raw("v1|createdAt|ASC|yesterday|7"), order))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decode(raw("v1|createdAt|ASC|2024-05-01T12:30|x"), order))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.decode(raw("v2|createdAt|ASC|2024-05-01T12:30|7"), order))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Позиция как у Window: поле сортировки и id последней строки
+    private static KeysetScrollPosition position(String property, Object value) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(property, value);
+        if (!"id".equals(property)) {
+            keys.put("id", 7L);
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}